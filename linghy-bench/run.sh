@@ -0,0 +1,26 @@
+#!/bin/bash
+# Runs the launcher benchmarks and keeps the results as JSON, one file per version and run, for comparing
+# releases (e.g. on jmh.morethan.io or with jq). Extra arguments go to JMH:
+#
+#   mvn -pl linghy-bench -am package -DskipTests
+#   linghy-bench/run.sh                          all benchmarks
+#   linghy-bench/run.sh ModScan -prof gc         one benchmark, with allocation rates
+#   linghy-bench/run.sh -l                       list benchmarks
+
+set -e
+
+ROOT=$(cd "$(dirname "$0")" && pwd)
+JAR="$ROOT/target/benchmarks.jar"
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+
+if [ ! -f "$JAR" ]; then
+    echo "Build first: mvn -pl linghy-bench -am package -DskipTests" >&2
+    exit 1
+fi
+
+VERSION=$(sed -n 's:.*<version>\(.*\)</version>.*:\1:p' "$ROOT/pom.xml" | head -n 1)
+mkdir -p "$ROOT/results"
+RESULT="$ROOT/results/linghy-$VERSION-$(date +%Y%m%d-%H%M%S).json"
+
+"$JAVA" -jar "$JAR" -rf json -rff "$RESULT" "$@"
+if [ -f "$RESULT" ]; then echo "Results: $RESULT"; fi
@@ -0,0 +1,139 @@
+package com.linghy.bench;
+
+import com.google.gson.Gson;
+
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// CurseForge API responses shaped like the real ones: nested authors, categories, screenshots and
+// latestFiles, ISO-8601 dates and a pagination block. Result n of any search is always the same mod, and
+// its one file is Fixtures.modJar(n), downloaded from fileHost + "/files/<fileId>/<fileName>".
+public final class CannedCurseForge
+{
+    public static final int GAME_ID = 70216;
+    public static final int FIRST_MOD_ID = 1_100_000;
+    public static final int FIRST_FILE_ID = 6_000_000;
+
+    private static final Gson gson = new Gson();
+
+    private CannedCurseForge() {}
+
+    public static String searchPage(int index, int pageSize, int totalCount, String fileHost)
+    {
+        List<Object> data = new ArrayList<>();
+        for (int i = index; i < Math.min(index + pageSize, totalCount); i++) {
+            data.add(mod(i, fileHost));
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("data", data);
+        response.put("pagination", Map.of("index", index, "pageSize", pageSize, "resultCount", data.size(),
+                "totalCount", totalCount));
+        return gson.toJson(response);
+    }
+
+    public static String modResponse(int n, String fileHost) {
+        return gson.toJson(Map.of("data", mod(n, fileHost)));
+    }
+
+    public static String filesResponse(int n, String fileHost) {
+        return gson.toJson(Map.of("data", files(n, fileHost)));
+    }
+
+    public static Map<String, Object> mod(int n, String fileHost)
+    {
+        int id = FIRST_MOD_ID + n;
+        Map<String, Object> mod = new LinkedHashMap<>();
+        mod.put("id", id);
+        mod.put("gameId", GAME_ID);
+        mod.put("name", "Example Mod " + n);
+        mod.put("slug", "example-mod-" + n);
+        mod.put("links", Map.of("websiteUrl", "https://www.curseforge.com/hytale/mods/example-mod-" + n));
+        mod.put("summary", "Adds " + n + " new blocks, a crafting bench and a handful of quality of life tweaks.");
+        mod.put("status", 4);
+        mod.put("downloadCount", 1_000L * (n + 1) * (n + 7));
+        mod.put("isFeatured", n % 9 == 0);
+        mod.put("primaryCategoryId", 400 + n % 12);
+        mod.put("categories", List.of(
+                category(400 + n % 12, "Blocks"), category(420 + n % 5, "Gameplay"), category(431, "Utility")));
+        mod.put("authors", List.of(
+                Map.of("id", 90_000 + n % 37, "name", "author" + (n % 37),
+                        "url", "https://www.curseforge.com/members/author" + (n % 37))));
+        mod.put("logo", image(id, 1));
+        mod.put("screenshots", List.of(image(id, 2), image(id, 3), image(id, 4)));
+        mod.put("mainFileId", FIRST_FILE_ID + n);
+        mod.put("latestFiles", files(n, fileHost));
+        mod.put("dateCreated", "2026-01-" + String.format("%02d", 1 + n % 28) + "T10:15:30.123Z");
+        mod.put("dateModified", "2026-09-" + String.format("%02d", 1 + n % 28) + "T18:42:07.5Z");
+        mod.put("dateReleased", "2026-09-" + String.format("%02d", 1 + n % 28) + "T18:42:07.5Z");
+        mod.put("allowModDistribution", true);
+        mod.put("gamePopularityRank", 10 + n);
+        mod.put("thumbsUpCount", n * 3);
+        return mod;
+    }
+
+    // The mod number a file id or mod id was generated for, or -1.
+    public static int modNumber(int id)
+    {
+        if (id >= FIRST_FILE_ID) return id - FIRST_FILE_ID;
+        if (id >= FIRST_MOD_ID && id < FIRST_MOD_ID + 100_000) return id - FIRST_MOD_ID;
+        return -1;
+    }
+
+    private static List<Object> files(int n, String fileHost) {
+        return List.of(file(n, FIRST_FILE_ID + n, "1.0." + (n % 10), fileHost));
+    }
+
+    private static Map<String, Object> category(int id, String name)
+    {
+        return Map.of("id", id, "gameId", GAME_ID, "name", name, "slug", name.toLowerCase(),
+                "url", "https://www.curseforge.com/hytale/mods/" + name.toLowerCase(),
+                "iconUrl", "https://media.forgecdn.net/avatars/" + id + ".png");
+    }
+
+    private static Map<String, Object> image(int modId, int n)
+    {
+        String url = "https://media.forgecdn.net/avatars/" + modId + "/" + n;
+        return Map.of("id", modId * 10 + n, "modId", modId, "title", "image " + n, "description", "",
+                "thumbnailUrl", url + "/256/256/thumb.png", "url", url + ".png");
+    }
+
+    private static String digest(String algorithm, byte[] data)
+    {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance(algorithm).digest(data));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Map<String, Object> file(int n, int fileId, String version, String fileHost)
+    {
+        String fileName = "example-mod-" + n + "-" + version + ".jar";
+        byte[] jar = Fixtures.modJar(n);
+
+        Map<String, Object> file = new LinkedHashMap<>();
+        file.put("id", fileId);
+        file.put("gameId", GAME_ID);
+        file.put("modId", FIRST_MOD_ID + n);
+        file.put("isAvailable", true);
+        file.put("displayName", "Example Mod " + n + " " + version);
+        file.put("fileName", fileName);
+        file.put("releaseType", 1);
+        file.put("fileStatus", 4);
+        file.put("hashes", List.of(
+                Map.of("value", digest("SHA-1", jar), "algo", 1),
+                Map.of("value", digest("MD5", jar), "algo", 2)));
+        file.put("fileDate", "2026-09-14T18:42:07.517Z");
+        file.put("fileLength", jar.length);
+        file.put("downloadCount", fileId % 10_000);
+        file.put("downloadUrl", fileHost + "/files/" + fileId + "/" + fileName);
+        file.put("gameVersions", List.of("Early Access"));
+        file.put("dependencies", List.of());
+        return file;
+    }
+}
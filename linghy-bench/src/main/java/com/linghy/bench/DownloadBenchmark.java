@@ -0,0 +1,72 @@
+package com.linghy.bench;
+
+import com.linghy.net.DownloadState;
+import com.linghy.net.SegmentedDownloader;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// The transfer loop PWRDownloader and JREDownloader share through ArtifactCache: a 64 MB artifact from a
+// loopback mirror, split into segments when the server takes ranges and streamed whole when it does not.
+//   loopback  as fast as the machine goes, which isolates the launcher's own overhead
+//   cdn       20 ms to first byte and 32 MB/s per connection, roughly the patch CDN on a good line
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class DownloadBenchmark
+{
+    private static final int SIZE = 64 * 1024 * 1024;
+
+    @Param({"true", "false"})
+    public boolean ranges;
+
+    @Param({"loopback", "cdn"})
+    public String link;
+
+    private Path home;
+    private LocalHttpServer server;
+    private String url;
+    private Path dir;
+    private Path dest;
+    private volatile long reported;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception
+    {
+        home = Fixtures.isolateHome();
+        server = new LocalHttpServer();
+        url = server.serve("/patches/4.pwr", Fixtures.randomBytes(SIZE, 4), "application/octet-stream", ranges);
+        if (link.equals("cdn"))
+        {
+            server.setLatency(20);
+            server.setBandwidth(32L * 1024 * 1024);
+        }
+        dir = Fixtures.tempDir("download");
+        dest = dir.resolve("4.pwr");
+    }
+
+    @Setup(Level.Invocation)
+    public void clean() throws Exception
+    {
+        Files.deleteIfExists(dest);
+        DownloadState.discard(dest);
+    }
+
+    @Benchmark
+    public byte[] download() throws Exception {
+        return SegmentedDownloader.download(url, dest, null, (downloaded, total, status) -> reported = downloaded);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception
+    {
+        server.close();
+        Fixtures.deleteTree(dir);
+        Fixtures.deleteTree(home);
+    }
+}
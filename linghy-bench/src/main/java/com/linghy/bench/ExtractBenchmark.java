@@ -0,0 +1,54 @@
+package com.linghy.bench;
+
+import com.linghy.java.JREExtractor;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// JRE archive extraction, on archives laid out like the Temurin builds (see Fixtures.writeJreArchive).
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ExtractBenchmark
+{
+    @Param({"zip", "tar.gz"})
+    public String format;
+
+    private Path dir;
+    private Path archive;
+    private Path dest;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException
+    {
+        dir = Fixtures.tempDir("extract");
+        archive = dir.resolve("jre." + format);
+        dest = dir.resolve("jre");
+
+        try (OutputStream out = Files.newOutputStream(archive)) {
+            Fixtures.writeJreArchive(out, format.equals("zip"), 48 * 1024 * 1024);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void clean() throws IOException {
+        Fixtures.deleteTree(dest);
+    }
+
+    @Benchmark
+    public void extract() throws IOException {
+        JREExtractor.extractJRE(archive, dest);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Fixtures.deleteTree(dir);
+    }
+}
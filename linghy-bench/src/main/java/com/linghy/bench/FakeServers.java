@@ -0,0 +1,207 @@
+package com.linghy.bench;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.linghy.env.Environment;
+import com.linghy.utils.CryptoUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Stand-ins for every host the launcher talks to, on one loopback server that mirrors the real paths, so
+// -Dlinghy.endpoints=<baseUrl> (see com.linghy.net.Endpoints) points the whole launcher at it:
+//   /patches/<os>/<arch>/<branch>/0/<n>.pwr      synthetic full patches 1..patches, with ranges
+//   /version/release/jre.json, /jre/...          a JRE manifest and a matching archive for this platform
+//   /butler/<os>-<arch>/LATEST/archive/default   a butler zip
+//   /v1/mods/search, /v1/mods/..., POST /v1/mods canned CurseForge results, files under /files/
+//   .../keys/cf.key                               an encrypted CurseForge key
+//   /news                                         a news page with a few posts
+// Latency, bandwidth caps and failures are set on server().
+//
+// Standalone, for pointing a real launcher at it:
+//   java -cp linghy-bench/target/benchmarks.jar com.linghy.bench.FakeServers [port] [patches] [mods]
+public class FakeServers implements AutoCloseable
+{
+    public static final String[] BRANCHES = {"release", "pre-release"};
+    public static final String API_KEY = "fake-servers";
+
+    private final LocalHttpServer server;
+    private final String os = Environment.getOS();
+    private final String arch = Environment.getArch();
+
+    public FakeServers(int port, int patches, int patchSize, int mods) throws IOException
+    {
+        server = new LocalHttpServer(port);
+
+        byte[] patch = Fixtures.randomBytes(patchSize, patchSize);
+        for (String branch : BRANCHES)
+        {
+            for (int n = 1; n <= patches; n++) {
+                server.serve(String.format("/patches/%s/%s/%s/0/%d.pwr", os, arch, branch, n), patch,
+                        "application/octet-stream");
+            }
+        }
+
+        serveJre();
+        server.serve("/butler/" + os + "-" + arch + "/LATEST/archive/default",
+                Fixtures.butlerZip(os.equals("windows")), "application/zip");
+        server.serve("/0xcds4r/LingHy-Launcher/main/keys/cf.key", encryptedKey(), "application/octet-stream");
+        server.serve("/news", news().getBytes(StandardCharsets.UTF_8), "text/html");
+        serveCurseForge(mods);
+    }
+
+    public LocalHttpServer server() {
+        return server;
+    }
+
+    public String baseUrl() {
+        return server.baseUrl();
+    }
+
+    // Must run before the launcher first touches com.linghy.net.Endpoints.
+    public void install() {
+        System.setProperty("linghy.endpoints", baseUrl());
+    }
+
+    private void serveJre() throws IOException
+    {
+        boolean zip = os.equals("windows");
+        String fileName = "OpenJDK25U-jre_" + arch + "_" + os + "_hotspot_25.0.1_8." + (zip ? "zip" : "tar.gz");
+
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        Fixtures.writeJreArchive(archive, zip, 16 * 1024 * 1024);
+        String url = server.serve("/jre/" + fileName, archive.toByteArray(), "application/octet-stream");
+
+        Map<String, Object> platform = Map.of("url", url, "sha256", sha256(archive.toByteArray()));
+        Map<String, Object> manifest = Map.of(
+                "version", "25.0.1+8",
+                "download_url", Map.of(os, Map.of(arch, platform)));
+        server.serve("/version/release/jre.json",
+                new Gson().toJson(manifest).getBytes(StandardCharsets.UTF_8), "application/json");
+    }
+
+    private void serveCurseForge(int mods)
+    {
+        String host = baseUrl();
+
+        server.route("/v1/mods/search", "application/json", request ->
+        {
+            Map<String, String> query = query(request.uri());
+            int index = Integer.parseInt(query.getOrDefault("index", "0"));
+            int pageSize = Integer.parseInt(query.getOrDefault("pageSize", "50"));
+            return CannedCurseForge.searchPage(index, pageSize, mods, host);
+        });
+
+        // mods/<id> and mods/<id>/files
+        server.route("/v1/mods/", "application/json", request ->
+        {
+            String[] parts = request.uri().getPath().substring("/v1/mods/".length()).split("/");
+            int n = CannedCurseForge.modNumber(Integer.parseInt(parts[0]));
+            if (n < 0 || n >= mods) return null;
+
+            return parts.length > 1 && parts[1].equals("files")
+                    ? CannedCurseForge.filesResponse(n, host)
+                    : CannedCurseForge.modResponse(n, host);
+        });
+
+        // Bulk lookup: {"modIds": [...]}
+        server.route("/v1/mods", "application/json", request ->
+        {
+            if (!request.method().equals("POST")) return null;
+
+            List<Object> found = new ArrayList<>();
+            new Gson().fromJson(request.body(), JsonObject.class).getAsJsonArray("modIds").forEach(id ->
+            {
+                int n = CannedCurseForge.modNumber(id.getAsInt());
+                if (n >= 0 && n < mods) found.add(CannedCurseForge.mod(n, host));
+            });
+            return new Gson().toJson(Map.of("data", found));
+        });
+
+        server.route("/files/", "application/java-archive", request ->
+        {
+            String[] parts = request.uri().getPath().substring("/files/".length()).split("/");
+            int n = CannedCurseForge.modNumber(Integer.parseInt(parts[0]));
+            return n >= 0 && n < mods ? Fixtures.modJar(n) : null;
+        });
+    }
+
+    private static Map<String, String> query(URI uri)
+    {
+        Map<String, String> query = new LinkedHashMap<>();
+        if (uri.getRawQuery() == null) return query;
+
+        for (String pair : uri.getRawQuery().split("&"))
+        {
+            int eq = pair.indexOf('=');
+            if (eq > 0) query.put(pair.substring(0, eq), pair.substring(eq + 1));
+        }
+        return query;
+    }
+
+    private static byte[] encryptedKey() throws IOException
+    {
+        Path file = Files.createTempFile("linghy-bench-key", ".bin");
+        try {
+            CryptoUtil.writeEncrypted(file, API_KEY);
+            return Files.readAllBytes(file);
+        } catch (Exception e) {
+            throw new IOException("Failed to encrypt the fake CurseForge key", e);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static String news()
+    {
+        StringBuilder html = new StringBuilder("<html><body>");
+        for (int i = 1; i <= 6; i++)
+        {
+            html.append("<div class=\"postWrapper\"><a class=\"post\" href=\"/news/2026/10/post-").append(i).append("\">")
+                    .append("<span class=\"post__image\"><img src=\"/news/images/").append(i).append(".png\"></span>")
+                    .append("<span class=\"post__details\">")
+                    .append("<h4 class=\"post__details__heading\">Fake news post ").append(i).append("</h4>")
+                    .append("<span class=\"post__details__meta\">October ").append(3 + i).append("th 2026</span>")
+                    .append("<span class=\"post__details__body\">Served by linghy-bench.<br>Nothing to see.</span>")
+                    .append("</span></a></div>");
+        }
+        return html.append("</body></html>").toString();
+    }
+
+    private static String sha256(byte[] data)
+    {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.close();
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        int patches = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int mods = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+
+        FakeServers servers = new FakeServers(port, patches, 64 * 1024 * 1024, mods);
+        System.out.println("Fake servers on " + servers.baseUrl() + " (" + patches + " patches, " + mods + " mods)");
+        System.out.println("Start the launcher with -Dlinghy.endpoints=" + servers.baseUrl());
+
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,186 @@
+package com.linghy.bench;
+
+import com.google.gson.Gson;
+import org.apache.commons.compress.archivers.ArchiveEntry;
+import org.apache.commons.compress.archivers.ArchiveOutputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+// Synthetic inputs shared by the benchmarks. Everything is seeded so runs on different releases compare.
+public final class Fixtures
+{
+    private static final String JRE_ROOT = "jdk-25.0.1+8-jre/";
+    private static final int JRE_SMALL_FILES = 1500;
+
+    private Fixtures() {}
+
+    public static byte[] randomBytes(int size, long seed)
+    {
+        byte[] data = new byte[size];
+        new Random(seed).nextBytes(data);
+        return data;
+    }
+
+    // Mostly repetitive bytes, compressing about as well as class files and native libraries do.
+    public static byte[] compressibleBytes(int size, long seed)
+    {
+        Random random = new Random(seed);
+        byte[] data = new byte[size];
+        byte[] words = randomBytes(4096, seed);
+
+        for (int i = 0; i < size; i++) {
+            data[i] = random.nextInt(4) == 0 ? (byte) random.nextInt() : words[i & 4095];
+        }
+        return data;
+    }
+
+    public static Path tempDir(String prefix) throws IOException {
+        return Files.createTempDirectory("linghy-bench-" + prefix);
+    }
+
+    // The launcher reads its folders from user.home, so every benchmark gets a throwaway one.
+    public static Path isolateHome() throws IOException
+    {
+        Path home = tempDir("home");
+        System.setProperty("user.home", home.toString());
+        return home;
+    }
+
+    public static void deleteTree(Path root) throws IOException
+    {
+        if (root == null || !Files.exists(root)) return;
+
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    // A mod jar as Hytale loads it: manifest.json at the root plus some class data.
+    public static byte[] modJar(int i)
+    {
+        String manifest = new Gson().toJson(Map.of(
+                "Group", "com.example",
+                "Name", "Example Mod " + i,
+                "Version", "1.0." + (i % 10),
+                "Authors", List.of(Map.of("Name", "author" + (i % 37))),
+                "DisabledByDefault", i % 11 == 0));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(out))
+        {
+            zip.putNextEntry(new ZipEntry("manifest.json"));
+            zip.write(manifest.getBytes(StandardCharsets.UTF_8));
+            zip.putNextEntry(new ZipEntry("com/example/mod" + i + "/Main.class"));
+            zip.write(compressibleBytes(32 * 1024, i));
+            zip.closeEntry();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.toByteArray();
+    }
+
+    // A butler release zip whose binary is a script answering --version, enough for ButlerInstaller's check.
+    public static byte[] butlerZip(boolean windows)
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipArchiveOutputStream zip = new ZipArchiveOutputStream(out))
+        {
+            ZipArchiveEntry entry = new ZipArchiveEntry(windows ? "butler.exe" : "butler");
+            entry.setUnixMode(0755);
+            zip.putArchiveEntry(entry);
+            zip.write("#!/bin/sh\necho 'head, built on fake-servers'\n".getBytes(StandardCharsets.UTF_8));
+            zip.closeArchiveEntry();
+
+            zip.putArchiveEntry(new ZipArchiveEntry("7z.so"));
+            zip.write(compressibleBytes(512 * 1024, 7));
+            zip.closeArchiveEntry();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.toByteArray();
+    }
+
+    // Laid out like the Temurin JRE builds: one top-level folder, bin/java, a large lib/modules image,
+    // a handful of native libraries and a long tail of small files.
+    public static void writeJreArchive(OutputStream file, boolean zip, int modulesSize) throws IOException
+    {
+        if (zip)
+        {
+            try (ZipArchiveOutputStream out = new ZipArchiveOutputStream(file)) {
+                writeJreEntries(out, ZipArchiveEntry::new, modulesSize);
+            }
+        }
+        else
+        {
+            try (TarArchiveOutputStream out = new TarArchiveOutputStream(new GzipCompressorOutputStream(file)))
+            {
+                out.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+                writeJreEntries(out, TarArchiveEntry::new, modulesSize);
+            }
+        }
+    }
+
+    private interface EntryFactory<E extends ArchiveEntry> {
+        E create(String name);
+    }
+
+    private static <E extends ArchiveEntry> void writeJreEntries(ArchiveOutputStream<E> out, EntryFactory<E> entries,
+                                                                 int modulesSize)
+            throws IOException
+    {
+        Random random = new Random(25);
+
+        writeEntry(out, entries, JRE_ROOT + "bin/java", "#!/bin/sh\n".getBytes(StandardCharsets.UTF_8));
+        writeEntry(out, entries, JRE_ROOT + "bin/java.exe", new byte[] {'M', 'Z'});
+        writeEntry(out, entries, JRE_ROOT + "lib/modules", compressibleBytes(modulesSize, 1));
+        for (String lib : new String[] {"libjvm.so", "libawt.so", "libfontmanager.so", "libnet.so"}) {
+            writeEntry(out, entries, JRE_ROOT + "lib/" + lib, compressibleBytes(2 * 1024 * 1024, lib.hashCode()));
+        }
+        for (int i = 0; i < JRE_SMALL_FILES; i++)
+        {
+            String name = JRE_ROOT + "legal/java.module" + (i % 70) + "/file" + i + ".txt";
+            writeEntry(out, entries, name, compressibleBytes(256 + random.nextInt(8 * 1024), i));
+        }
+    }
+
+    private static <E extends ArchiveEntry> void writeEntry(ArchiveOutputStream<E> out, EntryFactory<E> entries,
+                                                            String name, byte[] data) throws IOException
+    {
+        E entry = entries.create(name);
+        boolean executable = name.contains("/bin/");
+
+        if (entry instanceof ZipArchiveEntry zip)
+        {
+            zip.setSize(data.length);
+            zip.setUnixMode(executable ? 0755 : 0644);
+        }
+        if (entry instanceof TarArchiveEntry tar)
+        {
+            tar.setSize(data.length);
+            tar.setMode(executable ? 0100755 : 0100644);
+        }
+
+        out.putArchiveEntry(entry);
+        out.write(data);
+        out.closeArchiveEntry();
+    }
+}
@@ -0,0 +1,274 @@
+package com.linghy.bench;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// Serves in-memory files on a loopback port, so download benchmarks measure the launcher and not the network.
+// Answers HEAD, conditional requests and single byte-range GETs the way the patch and JRE mirrors do.
+// Latency, a per-connection bandwidth cap and failures can be injected; failures are drawn from a seeded
+// Random so a run can be repeated exactly.
+public class LocalHttpServer implements AutoCloseable
+{
+    private static final int CHUNK = 64 * 1024;
+
+    public enum Failure
+    {
+        // 503 before any byte of the body.
+        UNAVAILABLE,
+        // Connection closed halfway through the body.
+        TRUNCATED
+    }
+
+    // What a route gets to see of a request.
+    public record Request(String method, URI uri, String body) {}
+
+    private static class Resource
+    {
+        final byte[] data;
+        final String contentType;
+        final boolean ranges;
+        final String etag;
+
+        Resource(byte[] data, String contentType, boolean ranges, int version)
+        {
+            this.data = data;
+            this.contentType = contentType;
+            this.ranges = ranges;
+            this.etag = "\"" + Integer.toHexString(version) + "\"";
+        }
+    }
+
+    private final Map<String, Resource> resources = new ConcurrentHashMap<>();
+    private final Map<String, Function<Request, Resource>> routes = new ConcurrentHashMap<>();
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private volatile long latencyMs;
+    private volatile long bytesPerSecond;
+    private volatile double failureRate;
+    private volatile Failure failure = Failure.UNAVAILABLE;
+    private Random failures = new Random(0);
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+
+    public LocalHttpServer() throws IOException {
+        this(0);
+    }
+
+    public LocalHttpServer(int port) throws IOException
+    {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        executor = Executors.newCachedThreadPool(r ->
+        {
+            Thread t = new Thread(r, "bench-http");
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    // Without ranges the server behaves like a mirror that only streams whole files.
+    public String serve(String path, byte[] data, String contentType, boolean ranges)
+    {
+        // Files can be large and are often shared between paths, so they are told apart by identity.
+        resources.put(path, new Resource(data, contentType, ranges, path.hashCode() * 31 + System.identityHashCode(data)));
+        return url(path);
+    }
+
+    public String serve(String path, byte[] data, String contentType) {
+        return serve(path, data, contentType, true);
+    }
+
+    // Generated responses for paths under prefix that have no file of their own; the longest matching prefix
+    // wins. The function returns the body as a byte[] or String, or null for a 404.
+    public void route(String prefix, String contentType, Function<Request, Object> body)
+    {
+        routes.put(prefix, request ->
+        {
+            Object content = body.apply(request);
+            if (content == null) return null;
+
+            byte[] data = content instanceof String text ? text.getBytes(StandardCharsets.UTF_8)
+                    : (byte[]) content;
+            return new Resource(data, contentType, false, Arrays.hashCode(data));
+        });
+    }
+
+    public String url(String path) {
+        return baseUrl() + path;
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    // Delay before the response headers, on every request.
+    public void setLatency(long millis) {
+        this.latencyMs = millis;
+    }
+
+    // Cap per connection, as CDNs apply it; 0 is unlimited. Parallel segments each get the full rate.
+    public void setBandwidth(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    public synchronized void setFailures(double rate, Failure failure, long seed)
+    {
+        this.failureRate = rate;
+        this.failure = failure;
+        this.failures = new Random(seed);
+    }
+
+    public long requests() {
+        return requests.get();
+    }
+
+    public long bytesSent() {
+        return bytesSent.get();
+    }
+
+    private synchronized boolean shouldFail() {
+        return failureRate > 0 && failures.nextDouble() < failureRate;
+    }
+
+    private Resource find(HttpExchange exchange) throws IOException
+    {
+        URI uri = exchange.getRequestURI();
+        Resource resource = resources.get(uri.getPath());
+        if (resource != null) return resource;
+
+        String prefix = null;
+        for (String candidate : routes.keySet())
+        {
+            if (uri.getPath().startsWith(candidate) && (prefix == null || candidate.length() > prefix.length())) {
+                prefix = candidate;
+            }
+        }
+        if (prefix == null) return null;
+
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        return routes.get(prefix).apply(new Request(exchange.getRequestMethod(), uri, body));
+    }
+
+    private void handle(HttpExchange exchange) throws IOException
+    {
+        requests.incrementAndGet();
+
+        try (exchange)
+        {
+            if (latencyMs > 0) {
+                Thread.sleep(latencyMs);
+            }
+
+            Resource resource = find(exchange);
+            if (resource == null)
+            {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+
+            boolean fail = shouldFail();
+            if (fail && failure == Failure.UNAVAILABLE)
+            {
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+
+            var headers = exchange.getResponseHeaders();
+            headers.set("Content-Type", resource.contentType);
+            headers.set("ETag", resource.etag);
+            if (resource.ranges) {
+                headers.set("Accept-Ranges", "bytes");
+            }
+
+            if (resource.etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match")))
+            {
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+
+            long total = resource.data.length;
+            if (exchange.getRequestMethod().equals("HEAD"))
+            {
+                headers.set("Content-Length", String.valueOf(total));
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+
+            long start = 0;
+            long end = total - 1;
+            String range = exchange.getRequestHeaders().getFirst("Range");
+            String ifRange = exchange.getRequestHeaders().getFirst("If-Range");
+
+            if (resource.ranges && range != null && range.startsWith("bytes=")
+                    && (ifRange == null || ifRange.equals(resource.etag)))
+            {
+                String[] bounds = range.substring("bytes=".length()).split("-", 2);
+                start = Long.parseLong(bounds[0]);
+                if (!bounds[1].isEmpty()) end = Math.min(Long.parseLong(bounds[1]), total - 1);
+
+                headers.set("Content-Range", "bytes " + start + "-" + end + "/" + total);
+                exchange.sendResponseHeaders(206, end - start + 1);
+            }
+            else
+            {
+                exchange.sendResponseHeaders(200, total == 0 ? -1 : total);
+            }
+
+            // A truncated response stops halfway and closes the connection short of Content-Length.
+            long last = fail ? start + (end - start) / 2 : end;
+            write(exchange.getResponseBody(), resource.data, start, last);
+        }
+        catch (IOException | InterruptedException e)
+        {
+            // The client gave up on the response, e.g. a cancelled segment, or the server is stopping.
+        }
+    }
+
+    private void write(OutputStream out, byte[] data, long start, long end) throws IOException, InterruptedException
+    {
+        long began = System.nanoTime();
+        long sent = 0;
+
+        for (long position = start; position <= end; position += CHUNK)
+        {
+            int length = (int) Math.min(CHUNK, end - position + 1);
+            out.write(data, (int) position, length);
+            sent += length;
+            bytesSent.addAndGet(length);
+
+            long rate = bytesPerSecond;
+            if (rate > 0)
+            {
+                long dueNanos = sent * 1_000_000_000L / rate;
+                long aheadMs = (dueNanos - (System.nanoTime() - began)) / 1_000_000;
+                if (aheadMs > 0) Thread.sleep(aheadMs);
+            }
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
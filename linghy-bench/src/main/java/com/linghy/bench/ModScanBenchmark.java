@@ -0,0 +1,91 @@
+package com.linghy.bench;
+
+import com.google.gson.Gson;
+import com.linghy.env.Environment;
+import com.linghy.mods.ModManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// ModManager.getInstalledMods over a folder of synthetic mod jars, a third of them with a .cfmeta sidecar.
+//   cold      first launch: no index, every jar is opened
+//   relaunch  a new ModManager with the index left by the previous run
+//   rescan    the same ModManager listing the folder again, as the mods tab does on refresh
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ModScanBenchmark
+{
+    @Param({"500"})
+    public int mods;
+
+    @Param({"cold", "relaunch", "rescan"})
+    public String mode;
+
+    private Path home;
+    private Path indexFile;
+    private ModManager manager;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException
+    {
+        home = Fixtures.isolateHome();
+        Path modsDir = Environment.getDefaultAppDir().resolve("UserData").resolve("Mods");
+        indexFile = Environment.getDefaultAppDir().resolve("cache").resolve("mod-index.json");
+        Files.createDirectories(modsDir);
+
+        Gson gson = new Gson();
+        for (int i = 0; i < mods; i++)
+        {
+            Path jar = modsDir.resolve("mod-" + i + "-1.0." + (i % 10) + ".jar");
+            Files.write(jar, Fixtures.modJar(i));
+
+            if (i % 3 == 0)
+            {
+                Path meta = jar.resolveSibling(jar.getFileName() + ".cfmeta");
+                try (OutputStream out = Files.newOutputStream(meta)) {
+                    out.write(gson.toJson(Map.of("curseForgeId", 1000 + i, "fileId", 5000 + i,
+                            "iconUrl", "https://media.forgecdn.net/avatars/thumbnails/" + i + ".png"))
+                            .getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        }
+
+        manager = new ModManager();
+        manager.getInstalledMods();
+    }
+
+    @Setup(Level.Invocation)
+    public void prepare() throws IOException
+    {
+        switch (mode)
+        {
+            case "cold" -> {
+                Files.deleteIfExists(indexFile);
+                manager = new ModManager();
+            }
+            case "relaunch" -> manager = new ModManager();
+            default -> {}
+        }
+    }
+
+    @Benchmark
+    public List<ModManager.InstalledMod> scan() {
+        return manager.getInstalledMods();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Fixtures.deleteTree(home);
+    }
+}
@@ -0,0 +1,74 @@
+package com.linghy.bench;
+
+import com.linghy.env.Environment;
+import com.linghy.version.GameVersion;
+import com.linghy.version.VersionManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// VersionManager.scanAvailableVersions against FakeServers publishing 60 patches, where every probe is a
+// HEAD request and the scan time is dominated by round trips.
+//   cold     no cached version list, the frontier is searched from scratch
+//   cached   the previous scan's list is on disk, only the newest entries are revalidated
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VersionScanBenchmark
+{
+    private static final int PATCHES = 60;
+
+    @Param({"0", "20"})
+    public int latencyMs;
+
+    @Param({"cold", "cached"})
+    public String mode;
+
+    private FakeServers servers;
+    private Path home;
+    private VersionManager manager;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception
+    {
+        home = Fixtures.isolateHome();
+        servers = new FakeServers(0, PATCHES, 1024, 0);
+        servers.install();
+        servers.server().setLatency(latencyMs);
+
+        Files.createDirectories(Environment.getDefaultAppDir());
+        manager = new VersionManager();
+
+        List<GameVersion> versions = scan();
+        if (versions.size() != PATCHES) {
+            throw new IllegalStateException("Scan found " + versions.size() + " of " + PATCHES + " patches");
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void prepare() throws IOException
+    {
+        if (mode.equals("cold")) {
+            Files.deleteIfExists(Environment.getDefaultAppDir().resolve("available_versions_release.json"));
+        }
+    }
+
+    @Benchmark
+    public List<GameVersion> scan() throws Exception {
+        return manager.scanAvailableVersions("release", (percent, message) -> {});
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException
+    {
+        servers.close();
+        Fixtures.deleteTree(home);
+    }
+}
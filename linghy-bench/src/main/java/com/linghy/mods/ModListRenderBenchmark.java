@@ -0,0 +1,151 @@
+package com.linghy.mods;
+
+import com.linghy.bench.Fixtures;
+import com.linghy.bench.LocalHttpServer;
+import com.linghy.image.ImageService;
+import com.linghy.mods.curseforge.CurseForgeAPI;
+import org.openjdk.jmh.annotations.*;
+
+import javax.imageio.ImageIO;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Scrolling the mod browser and the installed list: every operation moves the viewport down one row and
+// paints the visible rows through the list's renderer, the way BasicListUI does. Thumbnails come from a
+// loopback server and are loaded before measuring, as they are once a page has been on screen.
+// Run with -prof gc to see the allocation rate per scrolled row.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ModListRenderBenchmark
+{
+    private static final int ROWS = 50;
+    private static final int VISIBLE_ROWS = 8;
+    private static final int WIDTH = 760;
+
+    @Param({"browse", "installed"})
+    public String list;
+
+    private Path home;
+    private LocalHttpServer server;
+    private JList<Object> jList;
+    private ListCellRenderer<Object> renderer;
+    private CellRendererPane pane;
+    private Graphics2D graphics;
+    private int rowHeight;
+    private int top;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() throws Exception
+    {
+        home = Fixtures.isolateHome();
+        server = new LocalHttpServer();
+
+        List<Object> rows = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++)
+        {
+            String thumbnail = server.serve("/thumbnails/" + i + ".png", thumbnail(i), "image/png");
+
+            if (list.equals("browse"))
+            {
+                ImageService.get().load(thumbnail, 80, 80, ImageService.Fit.STRETCH).join();
+                rows.add(mod(i, thumbnail));
+            }
+            else
+            {
+                ImageService.get().load(thumbnail, 60, 60, ImageService.Fit.STRETCH).join();
+                rows.add(new ModManager.InstalledMod("mod-" + i + ".jar", "Example Mod " + i, "1.0." + i,
+                        "author" + (i % 37), i % 11 != 0, thumbnail, 1000 + i, 5000 + i));
+            }
+        }
+
+        jList = new JList<>(rows.toArray());
+        renderer = (ListCellRenderer<Object>) (ListCellRenderer<?>) (list.equals("browse")
+                ? new ModManagerDialog.CurseForgeModRenderer()
+                : new ModManagerDialog.InstalledModRenderer());
+        jList.setCellRenderer(renderer);
+        jList.setSize(WIDTH, 600);
+        jList.setSelectedIndex(3);
+
+        pane = new CellRendererPane();
+        jList.add(pane);
+
+        rowHeight = renderer.getListCellRendererComponent(jList, rows.get(0), 0, false, false)
+                .getPreferredSize().height;
+
+        BufferedImage canvas = new BufferedImage(WIDTH, rowHeight * VISIBLE_ROWS, BufferedImage.TYPE_INT_ARGB);
+        graphics = canvas.createGraphics();
+    }
+
+    private static CurseForgeAPI.Mod mod(int i, String thumbnail)
+    {
+        CurseForgeAPI.Mod mod = new CurseForgeAPI.Mod();
+        mod.id = 1_100_000 + i;
+        mod.name = "Example Mod " + i;
+        mod.downloadCount = 1_000L * (i + 1) * (i + 7);
+
+        CurseForgeAPI.Author author = new CurseForgeAPI.Author();
+        author.name = "author" + (i % 37);
+        mod.authors = List.of(author);
+
+        mod.categories = new ArrayList<>();
+        for (String name : new String[] {"Blocks", "Gameplay", "Utility", "Library"})
+        {
+            CurseForgeAPI.Category category = new CurseForgeAPI.Category();
+            category.name = name;
+            mod.categories.add(category);
+        }
+
+        mod.logo = new CurseForgeAPI.Logo();
+        mod.logo.thumbnailUrl = thumbnail;
+        return mod;
+    }
+
+    private static byte[] thumbnail(int seed) throws IOException
+    {
+        BufferedImage image = new BufferedImage(256, 256, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(new Color(Color.HSBtoRGB(seed / (float) ROWS, 0.6f, 0.8f)));
+        g.fillRect(0, 0, 256, 256);
+        g.setColor(Color.WHITE);
+        g.fillOval(48, 48, 160, 160);
+        g.dispose();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public void scroll()
+    {
+        top = (top + 1) % (ROWS - VISIBLE_ROWS);
+
+        for (int row = 0; row < VISIBLE_ROWS; row++)
+        {
+            int index = top + row;
+            Component cell = renderer.getListCellRendererComponent(jList, jList.getModel().getElementAt(index),
+                    index, jList.isSelectedIndex(index), false);
+            pane.paintComponent(graphics, cell, jList, 0, row * rowHeight, WIDTH, rowHeight, true);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException
+    {
+        graphics.dispose();
+        server.close();
+        Fixtures.deleteTree(home);
+    }
+}
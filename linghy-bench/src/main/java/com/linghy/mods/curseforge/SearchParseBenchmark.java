@@ -0,0 +1,31 @@
+package com.linghy.mods.curseforge;
+
+import com.linghy.bench.CannedCurseForge;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Gson parsing of one page of /v1/mods/search, as CannedCurseForge generates it.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchParseBenchmark
+{
+    @Param({"50"})
+    public int pageSize;
+
+    private String body;
+
+    @Setup
+    public void setup() {
+        body = CannedCurseForge.searchPage(0, pageSize, 4312, "https://edge.forgecdn.net");
+    }
+
+    @Benchmark
+    public CurseForgeAPI.SearchPage parse() {
+        return CurseForgeAPI.parsePage(body, 0);
+    }
+}
@@ -0,0 +1,58 @@
+package com.linghy.patches;
+
+import com.linghy.bench.Fixtures;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+
+// OnlineFix.findPattern over a client-sized binary. "found" places the pattern where current clients have
+// it; "missing" is an already patched or unknown client, where the whole window is scanned.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FindPatternBenchmark
+{
+    private static final long PATTERN_OFFSET = 0x80DB80L;
+    private static final byte[] PATTERN = HexFormat.of().parseHex("55534883ec38488d6c244033c0488945");
+
+    @Param({"found", "missing"})
+    public String layout;
+
+    private Path dir;
+    private Path client;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        dir = Fixtures.tempDir("client");
+        client = dir.resolve("HytaleClient");
+
+        byte[] data = Fixtures.randomBytes(10 * 1024 * 1024, 0x80DB80);
+        if (layout.equals("found")) {
+            System.arraycopy(PATTERN, 0, data, (int) PATTERN_OFFSET, PATTERN.length);
+        }
+        Files.write(client, data);
+
+        long offset = OnlineFix.findPattern(client);
+        if ((offset == PATTERN_OFFSET) != layout.equals("found")) {
+            throw new IllegalStateException("Unexpected pattern offset " + offset + " for layout " + layout);
+        }
+    }
+
+    @Benchmark
+    public long find() throws IOException {
+        return OnlineFix.findPattern(client);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Fixtures.deleteTree(dir);
+    }
+}
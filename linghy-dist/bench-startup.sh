@@ -0,0 +1,94 @@
+#!/bin/bash
+# Cold-start comparison of the plain shaded jar against the linghy-dist runtime, with and without AppCDS.
+# Every variant gets one discarded warm-up run, then RUNS measured runs against the same throwaway home.
+#
+#   mvn -Pdist package -DskipTests
+#   linghy-dist/bench-startup.sh [RUNS]
+#
+# Reported per variant: median / min / max of wall time until exit, first frame and interactive, the
+# last two as recorded by com.linghy.Startup (milliseconds since main()).
+#
+# The launcher never reaches the real hosts. With linghy-bench built (mvn package) every run talks to its
+# FakeServers on loopback; otherwise, or with ENDPOINTS set, all endpoints point at ENDPOINTS, by default a
+# closed loopback port where every request fails at once.
+
+set -e
+
+RUNS=${1:-10}
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+DIST="$ROOT/linghy-dist/target/dist"
+JAR=$(find "$ROOT/linghy/target" -maxdepth 1 -name "linghy-*.jar" ! -name "original-*" | head -n 1)
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+
+if [ -z "$JAR" ] || [ ! -f "$DIST/app/linghy.jsa" ]; then
+    echo "Build first: mvn -Pdist package -DskipTests" >&2
+    exit 1
+fi
+
+WORK=$(mktemp -d)
+SERVERS=
+trap '[ -n "$SERVERS" ] && kill "$SERVERS" 2> /dev/null; rm -rf "$WORK"' EXIT
+
+BENCH_JAR="$ROOT/linghy-bench/target/benchmarks.jar"
+if [ -z "$ENDPOINTS" ] && [ -f "$BENCH_JAR" ]; then
+    # Ephemeral port, a few small patches and mods; the base URL is read back from its banner.
+    "$JAVA" -Djava.awt.headless=true -cp "$BENCH_JAR" com.linghy.bench.FakeServers 0 4 50 > "$WORK/servers.log" 2>&1 &
+    SERVERS=$!
+    for _ in $(seq 100); do
+        ENDPOINTS=$(sed -n 's/.*-Dlinghy.endpoints=//p' "$WORK/servers.log")
+        [ -n "$ENDPOINTS" ] && break
+        sleep 0.1
+    done
+    if [ -z "$ENDPOINTS" ]; then
+        echo "FakeServers did not start:" >&2
+        cat "$WORK/servers.log" >&2
+        exit 1
+    fi
+fi
+ENDPOINTS=${ENDPOINTS:-http://127.0.0.1:1}
+
+FLAGS=(-Duser.home="$WORK/home" -Dlinghy.endpoints="$ENDPOINTS" -Dlinghy.startup.exit=true -Dlinghy.startup.train=true -Dlinghy.startup.report="$WORK/report.json")
+if [ "$(uname)" = "Linux" ] && [ -z "$DISPLAY" ]; then
+    FLAGS+=(-Djava.awt.headless=true)
+fi
+
+milestone() {
+    sed -n "s/.*\"$1\": \([0-9]*\).*/\1/p" "$WORK/report.json"
+}
+
+stats() {
+    sort -n | awk '{ v[NR] = $1 } END { printf "%6d %6d %6d", v[int((NR + 1) / 2)], v[1], v[NR] }'
+}
+
+run_variant() {
+    local name=$1 dir=$2 jar=$3
+    shift 3
+
+    (cd "$dir" && "$@" "${FLAGS[@]}" -jar "$jar" > /dev/null 2>&1) || true
+
+    : > "$WORK/wall"; : > "$WORK/frame"; : > "$WORK/interactive"
+    for _ in $(seq "$RUNS"); do
+        rm -f "$WORK/report.json"
+        local start end
+        start=$(date +%s%N)
+        (cd "$dir" && "$@" "${FLAGS[@]}" -jar "$jar" > /dev/null 2>&1) || true
+        end=$(date +%s%N)
+
+        if [ ! -f "$WORK/report.json" ]; then
+            echo "$name: run did not reach interactive" >&2
+            return 1
+        fi
+        echo $(( (end - start) / 1000000 )) >> "$WORK/wall"
+        milestone "first frame" >> "$WORK/frame"
+        milestone "interactive" >> "$WORK/interactive"
+    done
+
+    printf "%-22s %s   %s   %s\n" "$name" \
+        "$(stats < "$WORK/wall")" "$(stats < "$WORK/frame")" "$(stats < "$WORK/interactive")"
+}
+
+echo "$RUNS runs per variant, $("$JAVA" -version 2>&1 | head -n 1), endpoints at $ENDPOINTS"
+printf "%-22s %-20s   %-20s   %-20s\n" "" "wall (med/min/max)" "first frame" "interactive"
+run_variant "shaded jar"     "$ROOT" "$JAR"          "$JAVA"
+run_variant "jlink runtime"  "$DIST" app/linghy.jar  runtime/bin/java
+run_variant "jlink + AppCDS" "$DIST" app/linghy.jar  runtime/bin/java -XX:SharedArchiveFile=app/linghy.jsa
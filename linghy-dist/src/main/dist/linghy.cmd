@@ -0,0 +1,4 @@
+@echo off
+rem Runs the launcher on the bundled runtime with its class data archive.
+cd /d "%~dp0"
+start "" runtime\bin\javaw.exe -XX:SharedArchiveFile=app/linghy.jsa -jar app/linghy.jar %*
@@ -0,0 +1,4 @@
+#!/bin/sh
+# Runs the launcher on the bundled runtime with its class data archive.
+cd "$(dirname "$0")" || exit 1
+exec runtime/bin/java -XX:SharedArchiveFile=app/linghy.jsa -jar app/linghy.jar "$@"
@@ -3,11 +3,15 @@ package com.linghy;
 import com.formdev.flatlaf.FlatDarkLaf;
 import com.linghy.env.Cleanup;
 import com.linghy.env.Environment;
+import com.linghy.image.ImageService;
 import com.linghy.launcher.LauncherFrame;
+import com.linghy.launcher.LauncherPanel;
 import com.linghy.mods.curseforge.CurseForgeAPI;
 import com.linghy.utils.AffinityMgr;
 
 import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.net.URLDecoder;
@@ -177,8 +181,28 @@ public class Main
         }
     }
 
+    // Set by the linghy-dist AppCDS training run. Without a display the launcher is built and painted
+    // off screen instead, which loads nearly the same classes as showing it.
+    private static final boolean TRAINING = Boolean.getBoolean("linghy.startup.train");
+
+    private static void paintOffscreen()
+    {
+        LauncherPanel panel = new LauncherPanel(null);
+        panel.setSize(1280, 720);
+        panel.validate();
+
+        BufferedImage image = new BufferedImage(panel.getWidth(), panel.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        panel.paint(g);
+        g.dispose();
+
+        Startup.firstFrame();
+    }
+
     public static void main(String[] args)
     {
+        Startup.mark("main");
+
         if (args.length > 0)
         {
             String uri = args[0];
@@ -188,24 +212,21 @@ public class Main
             }
         }
 
-        AffinityMgr.init();
-        CurseForgeAPI.init();
-
         try {
             UIManager.setLookAndFeel(new FlatDarkLaf());
         } catch (Exception e) {
             System.err.println("Failed to set look and feel: " + e.getMessage());
         }
-
-        try {
-            Environment.createFolders();
-            Cleanup.cleanupIncompleteDownloads();
-        } catch (Exception e) {
-            System.err.println("Warning: cleanup failed: " + e.getMessage());
-        }
+        Startup.mark("look and feel");
 
         SwingUtilities.invokeLater(() ->
         {
+            if (TRAINING && GraphicsEnvironment.isHeadless())
+            {
+                paintOffscreen();
+                return;
+            }
+
             LauncherFrame frame = new LauncherFrame();
             frame.addWindowListener(new WindowAdapter() {
                 @Override
@@ -215,6 +236,25 @@ public class Main
                 }
             });
             frame.setVisible(true);
+            Startup.mark("frame shown");
+        });
+
+        // None of this is needed to draw the launcher, so it waits until the first frame is on screen.
+        Startup.afterFirstFrame("cleanup", () ->
+        {
+            try {
+                Environment.createFolders();
+                Cleanup.cleanupIncompleteDownloads();
+            } catch (Exception e) {
+                System.err.println("Warning: cleanup failed: " + e.getMessage());
+            }
+        });
+        Startup.afterFirstFrame("native init", AffinityMgr::init);
+        Startup.afterFirstFrame("network warm-up", CurseForgeAPI::init);
+        Startup.afterFirstFrame("cache pruning", () ->
+        {
+            CurseForgeAPI.pruneCache();
+            ImageService.get().pruneDisk();
         });
     }
 }
@@ -0,0 +1,157 @@
+package com.linghy;
+
+import com.google.gson.GsonBuilder;
+
+import javax.swing.*;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Startup milestones and the lane for work that must not delay the first frame.
+//   -Dlinghy.startup.trace=true      print every milestone as it happens
+//   -Dlinghy.startup.report=<file>   write the milestones as JSON once the launcher is interactive
+//   -Dlinghy.startup.exit=true       exit right after that, for startup benchmarks
+public final class Startup
+{
+    private static final long T0 = System.nanoTime();
+
+    private static final boolean TRACE = Boolean.getBoolean("linghy.startup.trace");
+    private static final String REPORT = System.getProperty("linghy.startup.report");
+    private static final boolean EXIT_WHEN_INTERACTIVE = Boolean.getBoolean("linghy.startup.exit");
+
+    // Deferred work still runs if no frame is ever painted, e.g. when the window cannot be shown.
+    private static final long FIRST_FRAME_TIMEOUT_MS = 5000;
+
+    private static final Map<String, Long> marks = new LinkedHashMap<>();
+    private static final CompletableFuture<Void> firstFrame = new CompletableFuture<>();
+    private static boolean interactive;
+
+    private static final ExecutorService LANE = Executors.newSingleThreadExecutor(r ->
+    {
+        Thread t = new Thread(r, "linghy-startup");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+
+    private static CompletableFuture<Void> laneTail = firstFrame;
+
+    static {
+        firstFrame.completeOnTimeout(null, FIRST_FRAME_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private Startup() {}
+
+    public static void mark(String milestone)
+    {
+        long ms = elapsedMs();
+        synchronized (marks) {
+            marks.putIfAbsent(milestone, ms);
+        }
+        if (TRACE) {
+            System.out.println("[startup] " + milestone + " at " + ms + " ms");
+        }
+    }
+
+    // Queues work behind the first frame. Tasks run one at a time, in order, on a low-priority thread.
+    public static synchronized CompletableFuture<Void> afterFirstFrame(String name, Runnable task)
+    {
+        laneTail = laneTail.handle((r, e) -> null).thenRunAsync(() ->
+        {
+            try {
+                task.run();
+                mark(name);
+            } catch (RuntimeException e) {
+                System.err.println("Deferred startup task '" + name + "' failed: " + e);
+            }
+        }, LANE);
+        return laneTail;
+    }
+
+    // For work that must not overlap the deferred startup tasks, such as an install racing the cleanup.
+    public static void awaitDeferred()
+    {
+        CompletableFuture<Void> tail;
+        synchronized (Startup.class) {
+            tail = laneTail;
+        }
+        tail.join();
+    }
+
+    public static void firstFrame()
+    {
+        if (firstFrame.isDone()) return;
+
+        mark("first frame");
+        firstFrame.complete(null);
+    }
+
+    // The launcher counts as interactive once the first frame is up, its state is loaded and the EDT has
+    // caught up with everything queued until then.
+    public static void interactive()
+    {
+        firstFrame.thenRun(() -> SwingUtilities.invokeLater(() ->
+        {
+            synchronized (Startup.class)
+            {
+                if (interactive) return;
+                interactive = true;
+            }
+
+            mark("interactive");
+            report();
+        }));
+    }
+
+    private static void report()
+    {
+        Map<String, Long> snapshot;
+        synchronized (marks) {
+            snapshot = new LinkedHashMap<>(marks);
+        }
+
+        long jvmBoot = jvmBootMs();
+        System.out.println("Startup: first frame at " + snapshot.getOrDefault("first frame", -1L)
+                + " ms, interactive at " + snapshot.get("interactive") + " ms"
+                + (jvmBoot >= 0 ? " (+" + jvmBoot + " ms JVM boot)" : ""));
+
+        if (REPORT != null)
+        {
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("jvmBootMs", jvmBoot);
+            report.put("milestonesMs", snapshot);
+
+            try {
+                Files.writeString(Path.of(REPORT),
+                        new GsonBuilder().setPrettyPrinting().create().toJson(report), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                System.err.println("Failed to write startup report: " + e.getMessage());
+            }
+        }
+
+        if (EXIT_WHEN_INTERACTIVE) {
+            System.exit(0);
+        }
+    }
+
+    private static long elapsedMs() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - T0);
+    }
+
+    // Time between the process starting and this class loading, or -1 where the OS does not say.
+    private static long jvmBootMs()
+    {
+        return ProcessHandle.current().info().startInstant()
+                .map(start -> Duration.between(start, Instant.now()).toMillis() - elapsedMs())
+                .orElse(-1L);
+    }
+}
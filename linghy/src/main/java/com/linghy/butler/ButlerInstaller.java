@@ -3,10 +3,11 @@ package com.linghy.butler;
 import com.linghy.env.Environment;
 import com.linghy.model.ProgressCallback;
 import com.linghy.model.ProgressUpdate;
+import com.linghy.net.DownloadState;
+import com.linghy.net.Endpoints;
+import com.linghy.net.SegmentedDownloader;
 
 import java.io.*;
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.nio.file.*;
 
 import org.apache.commons.compress.archivers.zip.ZipFile;
@@ -43,7 +44,7 @@ public class ButlerInstaller
         callback.onProgress(new ProgressUpdate("butler", 0, "Downloading Butler...", "butler.zip", "", 0, 0));
 
         Path tempZip = toolsDir.resolve("butler.zip.tmp");
-        Files.deleteIfExists(tempZip);
+        DownloadState.discard(tempZip);
 
         int maxRetries = 3;
         for (int attempt = 1; attempt <= maxRetries; attempt++)
@@ -58,7 +59,7 @@ public class ButlerInstaller
                 } catch (Exception e)
                 {
                     System.err.println("Invalid ZIP on attempt " + attempt + ": " + e);
-                    Files.deleteIfExists(tempZip);
+                    DownloadState.discard(tempZip);
 
                     if (attempt == maxRetries) {
                         throw new IOException("Failed to download valid butler ZIP after " + maxRetries + " attempts");
@@ -69,7 +70,7 @@ public class ButlerInstaller
                 }
             } catch (Exception e)
             {
-                Files.deleteIfExists(tempZip);
+                DownloadState.discard(tempZip);
                 if (attempt == maxRetries) throw e;
                 Thread.sleep(2000 * attempt);
             }
@@ -90,7 +91,7 @@ public class ButlerInstaller
             extractedButler.toFile().setExecutable(true, false);
         }
 
-        Files.deleteIfExists(tempZip);
+        DownloadState.discard(tempZip);
 
         try {
             Process p = new ProcessBuilder(finalButlerPath.toString(), "--version").start();
@@ -113,7 +114,7 @@ public class ButlerInstaller
         String os = Environment.getOS();
         String arch = Environment.getArch();
 
-        String baseUrl = "https://broth.itch.zone/butler/";
+        String baseUrl = Endpoints.BUTLER + "/";
 
         return switch (os)
         {
@@ -124,53 +125,15 @@ public class ButlerInstaller
         };
     }
 
-    private static void downloadFile(String urlStr, Path dest, ProgressCallback callback) throws Exception
+    private static void downloadFile(String url, Path dest, ProgressCallback callback) throws Exception
     {
-        URL url = new URL(urlStr);
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestProperty("User-Agent", "Linghy/1.0");
-        conn.setInstanceFollowRedirects(true);
-
-        int responseCode = conn.getResponseCode();
-        if (responseCode != HttpURLConnection.HTTP_OK) {
-            throw new IOException("Server returned HTTP " + responseCode);
-        }
-
-        long total = conn.getContentLengthLong();
-        long downloaded = 0;
-        long startTime = System.currentTimeMillis();
-        long lastUpdate = startTime;
+        String fileName = dest.getFileName().toString();
 
-        try (InputStream in = conn.getInputStream();
-             OutputStream out = Files.newOutputStream(dest, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING))
+        SegmentedDownloader.download(url, dest, (downloaded, total, speed) ->
         {
-            byte[] buffer = new byte[32768];
-            int bytesRead;
-
-            while ((bytesRead = in.read(buffer)) != -1)
-            {
-                out.write(buffer, 0, bytesRead);
-                downloaded += bytesRead;
-
-                long now = System.currentTimeMillis();
-                if (now - lastUpdate > 200)
-                {
-                    double percent = total > 0 ? (downloaded * 100.0 / total) : 0;
-                    double elapsed = (now - startTime) / 1000.0;
-                    String speed = elapsed > 0 ? String.format("%.2f MB/s", downloaded / 1024.0 / 1024.0 / elapsed) : "";
-
-                    callback.onProgress(new ProgressUpdate("butler", percent,
-                            "Downloading Butler...", dest.getFileName().toString(),
-                            speed, downloaded, total));
-                    lastUpdate = now;
-                }
-            }
-        } finally {
-            conn.disconnect();
-        }
-
-        if (total > 0 && downloaded != total) {
-            throw new IOException("Incomplete download: got " + downloaded + " of " + total + " bytes");
-        }
+            double percent = total > 0 ? (downloaded * 100.0 / total) : 0;
+            callback.onProgress(new ProgressUpdate("butler", percent,
+                    "Downloading Butler...", fileName, speed, downloaded, total));
+        });
     }
-}
\ No newline at end of file
+}
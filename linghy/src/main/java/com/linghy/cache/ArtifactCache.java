@@ -0,0 +1,273 @@
+package com.linghy.cache;
+
+import com.google.gson.Gson;
+import com.linghy.env.Environment;
+import com.linghy.net.Checksum;
+import com.linghy.net.DownloadState;
+import com.linghy.net.SegmentedDownloader;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// Content-addressable store for downloaded artifacts (PWR patches, JRE archives).
+// Objects live under cache/objects/<first two hex>/<sha256><ext>, and cache/index.json maps
+// source URLs to hashes and records size and last access for LRU eviction under a byte budget.
+public final class ArtifactCache
+{
+    private static final long DEFAULT_BUDGET_MB = 8192;
+    private static final long RECENT_USE_GRACE_MS = 30 * 60 * 1000;
+    private static final String INDEX_FILE = "index.json";
+    private static final String PARTIAL_SUFFIX = ".tmp";
+    private static final Pattern PARTIAL_NAME = Pattern.compile("[0-9a-f]{1,8}-.+" + Pattern.quote(PARTIAL_SUFFIX));
+
+    private static ArtifactCache instance;
+
+    private final Path root;
+    private final Path objectsDir;
+    private final Path indexFile;
+    private final long budgetBytes;
+    private final Gson gson = new Gson();
+    private Index index;
+
+    static class Entry
+    {
+        String hash;
+        String name;
+        String ext = "";
+        long size;
+        long lastAccess;
+        List<String> sources = new ArrayList<>();
+    }
+
+    static class Index
+    {
+        Map<String, Entry> entries = new LinkedHashMap<>();
+    }
+
+    ArtifactCache(Path root, long budgetBytes)
+    {
+        this.root = root;
+        this.objectsDir = root.resolve("objects");
+        this.indexFile = root.resolve(INDEX_FILE);
+        this.budgetBytes = budgetBytes;
+    }
+
+    public static synchronized ArtifactCache get()
+    {
+        if (instance == null)
+        {
+            long budgetMb = Long.getLong("linghy.cache.budgetMb", DEFAULT_BUDGET_MB);
+            instance = new ArtifactCache(Environment.getDefaultAppDir().resolve("cache"), budgetMb * 1024 * 1024);
+        }
+        return instance;
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    // Only fetch() writes files under this name at the root; the other writers there keep their own temp files.
+    public static boolean isPartialDownload(Path file) {
+        return PARTIAL_NAME.matcher(file.getFileName().toString()).matches();
+    }
+
+    public synchronized Path find(String url, Checksum expected) throws IOException
+    {
+        loadIndex();
+
+        Entry entry = null;
+        if (expected != null) {
+            entry = index.entries.get(keyFor(expected));
+        }
+
+        if (entry == null)
+        {
+            for (Entry candidate : index.entries.values())
+            {
+                if (candidate.sources.contains(url)
+                        && (expected == null || candidate.hash.equalsIgnoreCase(expected.expected)))
+                {
+                    entry = candidate;
+                    break;
+                }
+            }
+        }
+
+        if (entry == null) return null;
+
+        Path object = objectPath(entry);
+        if (!Files.exists(object) || Files.size(object) != entry.size)
+        {
+            System.err.println("Cache object missing or damaged, dropping: " + entry.name);
+            Files.deleteIfExists(object);
+            index.entries.remove(entry.hash);
+            saveIndex();
+            return null;
+        }
+
+        entry.lastAccess = System.currentTimeMillis();
+        if (!entry.sources.contains(url)) {
+            entry.sources.add(url);
+        }
+        saveIndex();
+
+        return object;
+    }
+
+    public Path fetch(String url, String name, Checksum expected,
+                      SegmentedDownloader.ByteProgress progress) throws Exception
+    {
+        if (expected != null && !Checksum.SHA_256.equals(expected.algorithm)) {
+            throw new IllegalArgumentException("Artifact cache is keyed by SHA-256, got " + expected.algorithm);
+        }
+
+        Path cached = find(url, expected);
+        if (cached != null) return cached;
+
+        Files.createDirectories(root);
+        Path partial = root.resolve(Integer.toHexString(url.hashCode()) + "-" + name + PARTIAL_SUFFIX);
+
+        byte[] digest = SegmentedDownloader.download(url, partial, expected, progress);
+        return publish(partial, HexFormat.of().formatHex(digest), name, url);
+    }
+
+    public synchronized Path publish(Path file, String hash, String name, String source) throws IOException
+    {
+        loadIndex();
+
+        hash = hash.toLowerCase(Locale.ROOT);
+        Entry entry = index.entries.computeIfAbsent(hash, h -> new Entry());
+        entry.hash = hash;
+        entry.name = name;
+        entry.ext = extensionOf(name);
+
+        Path object = objectPath(entry);
+        Files.createDirectories(object.getParent());
+
+        if (Files.exists(object)) {
+            DownloadState.discard(file);
+        } else {
+            Files.move(file, object, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        entry.size = Files.size(object);
+        entry.lastAccess = System.currentTimeMillis();
+        if (source != null && !entry.sources.contains(source)) {
+            entry.sources.add(source);
+        }
+
+        evict(hash);
+        saveIndex();
+
+        System.out.println("Cached " + name + " as " + hash);
+        return object;
+    }
+
+    public synchronized long totalSize() throws IOException
+    {
+        loadIndex();
+        return index.entries.values().stream().mapToLong(e -> e.size).sum();
+    }
+
+    private void evict(String keep) throws IOException
+    {
+        long total = index.entries.values().stream().mapToLong(e -> e.size).sum();
+        if (total <= budgetBytes) return;
+
+        long now = System.currentTimeMillis();
+        List<Entry> byAge = new ArrayList<>(index.entries.values());
+        byAge.sort(Comparator.comparingLong(e -> e.lastAccess));
+
+        for (Entry entry : byAge)
+        {
+            if (total <= budgetBytes) break;
+            if (entry.hash.equals(keep) || now - entry.lastAccess < RECENT_USE_GRACE_MS) continue;
+
+            System.out.println("Evicting cached " + entry.name + " (" + entry.size + " bytes)");
+            Files.deleteIfExists(objectPath(entry));
+            index.entries.remove(entry.hash);
+            total -= entry.size;
+        }
+    }
+
+    private Path objectPath(Entry entry) {
+        return objectsDir.resolve(entry.hash.substring(0, 2)).resolve(entry.hash + entry.ext);
+    }
+
+    // Kept on the object so consumers that sniff the archive type from the name still work.
+    private static String extensionOf(String name)
+    {
+        String lower = name.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".tar.gz")) return ".tar.gz";
+
+        int dot = lower.lastIndexOf('.');
+        return dot > 0 ? lower.substring(dot) : "";
+    }
+
+    private static String keyFor(Checksum checksum) {
+        return checksum.expected.toLowerCase(Locale.ROOT);
+    }
+
+    private void loadIndex() throws IOException
+    {
+        if (index != null) return;
+
+        if (Files.exists(indexFile))
+        {
+            try {
+                index = gson.fromJson(Files.readString(indexFile), Index.class);
+            } catch (Exception e) {
+                System.err.println("Ignoring unreadable cache index: " + e.getMessage());
+            }
+        }
+
+        if (index == null || index.entries == null) {
+            index = new Index();
+        }
+
+        if (reconcile()) {
+            saveIndex();
+        }
+    }
+
+    // Drops entries whose object is gone and adopts objects published before a crash lost the index write.
+    private boolean reconcile() throws IOException
+    {
+        boolean changed = index.entries.values().removeIf(e -> !Files.exists(objectPath(e)));
+
+        if (!Files.isDirectory(objectsDir)) return changed;
+
+        try (Stream<Path> objects = Files.walk(objectsDir, 2))
+        {
+            for (Path object : (Iterable<Path>) objects.filter(Files::isRegularFile)::iterator)
+            {
+                String fileName = object.getFileName().toString();
+                int dot = fileName.indexOf('.');
+                String hash = dot > 0 ? fileName.substring(0, dot) : fileName;
+                if (index.entries.containsKey(hash)) continue;
+
+                Entry entry = new Entry();
+                entry.hash = hash;
+                entry.name = fileName;
+                entry.ext = dot > 0 ? fileName.substring(dot) : "";
+                entry.size = Files.size(object);
+                entry.lastAccess = Files.getLastModifiedTime(object).toMillis();
+                index.entries.put(hash, entry);
+                changed = true;
+            }
+        }
+
+        return changed;
+    }
+
+    private void saveIndex() throws IOException
+    {
+        Files.createDirectories(root);
+        Path temp = indexFile.resolveSibling(INDEX_FILE + ".new");
+        Files.writeString(temp, gson.toJson(index));
+        Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -1,5 +1,8 @@
 package com.linghy.env;
 
+import com.linghy.cache.ArtifactCache;
+import com.linghy.net.DownloadState;
+
 import java.io.IOException;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
@@ -9,17 +12,31 @@ public class Cleanup
     public static void cleanupIncompleteDownloads() throws IOException
     {
         Path appDir = Environment.getDefaultAppDir();
-        Path cacheDir = appDir.resolve("cache");
+        Path cacheDir = ArtifactCache.get().getRoot();
         Path gameLatest = appDir.resolve("release").resolve("package")
                 .resolve("game").resolve("latest");
 
-        cleanDirectory(cacheDir, new String[]{".pwr", ".zip", ".tar.gz", ".tmp"});
+        cleanDirectory(cacheDir, new String[]{".pwr", ".zip", ".tar.gz"});
         cleanIncompleteGame(gameLatest);
 
         Path stagingDir = gameLatest.resolve("staging-temp");
         if (Files.exists(stagingDir)) {
             deleteRecursively(stagingDir);
         }
+
+        cleanDeltaWorkDirs(gameLatest.getParent());
+    }
+
+    private static void cleanDeltaWorkDirs(Path gameRoot) throws IOException
+    {
+        if (!Files.exists(gameRoot)) return;
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(gameRoot, "*.delta-temp")) {
+            for (Path entry : stream) {
+                System.out.println("Removing interrupted update: " + entry);
+                deleteRecursively(entry);
+            }
+        }
     }
 
     private static void cleanDirectory(Path dir, String[] extensions) throws IOException
@@ -31,6 +48,39 @@ public class Cleanup
                 if (Files.isDirectory(entry)) continue;
 
                 String fileName = entry.getFileName().toString();
+
+                if (fileName.endsWith(DownloadState.SIDECAR_EXTENSION + ".new"))
+                {
+                    Path partial = entry.resolveSibling(fileName.substring(0,
+                            fileName.length() - (DownloadState.SIDECAR_EXTENSION + ".new").length()));
+                    if (ArtifactCache.isPartialDownload(partial) && !Files.exists(partial)) {
+                        Files.deleteIfExists(entry);
+                    }
+                    continue;
+                }
+
+                if (fileName.endsWith(DownloadState.SIDECAR_EXTENSION))
+                {
+                    Path partial = entry.resolveSibling(fileName.substring(0,
+                            fileName.length() - DownloadState.SIDECAR_EXTENSION.length()));
+                    if (!Files.exists(partial)) {
+                        Files.deleteIfExists(entry);
+                    }
+                    continue;
+                }
+
+                // news.json.new, index.json.new and friends may be mid-write; only our own partials go.
+                if (ArtifactCache.isPartialDownload(entry))
+                {
+                    if (Files.exists(DownloadState.sidecarFor(entry))) {
+                        System.out.println("Keeping resumable download: " + entry);
+                    } else {
+                        System.out.println("Removing incomplete download: " + entry);
+                        Files.deleteIfExists(entry);
+                    }
+                    continue;
+                }
+
                 for (String ext : extensions) {
                     if (fileName.endsWith(ext)) {
                         System.out.println("Removing incomplete download: " + entry);
@@ -0,0 +1,301 @@
+package com.linghy.image;
+
+import com.linghy.env.Environment;
+import com.linghy.net.Http;
+
+import javax.imageio.ImageIO;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Thumbnails for the mod browser and the news feed. Images are only ever kept at the size they are shown:
+// a byte-budgeted LRU in memory, the same scaled variants as PNGs on disk, and a small decode pool behind both.
+public class ImageService
+{
+    public enum Fit
+    {
+        STRETCH,  // fill the box, ignoring aspect ratio
+        COVER     // keep aspect ratio, fill the box and crop the overflow
+    }
+
+    private static final long FAILURE_RETRY_MS = 5 * 60 * 1000L;
+    private static final int DECODE_THREADS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    private static final ImageService INSTANCE = new ImageService(
+            Environment.getDefaultAppDir().resolve("cache").resolve("images"),
+            Long.getLong("linghy.images.budgetMb", 32) * 1024 * 1024,
+            Long.getLong("linghy.images.diskBudgetMb", 128) * 1024 * 1024);
+
+    private final Path diskRoot;
+    private final long memoryBudget;
+    private final long diskBudget;
+    private final LinkedHashMap<String, BufferedImage> memory = new LinkedHashMap<>(128, 0.75f, true);
+    private long memoryBytes;
+
+    private final Map<String, CompletableFuture<BufferedImage>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Long> failures = new ConcurrentHashMap<>();
+    private final ExecutorService decodePool;
+
+    private ImageService(Path diskRoot, long memoryBudget, long diskBudget)
+    {
+        this.diskRoot = diskRoot;
+        this.memoryBudget = memoryBudget;
+        this.diskBudget = diskBudget;
+
+        AtomicInteger counter = new AtomicInteger();
+        this.decodePool = Executors.newFixedThreadPool(DECODE_THREADS, r ->
+        {
+            Thread t = new Thread(r, "linghy-image-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        });
+    }
+
+    public static ImageService get() {
+        return INSTANCE;
+    }
+
+    // For renderers: the image if it is in memory, otherwise null and a load is started.
+    // onLoaded runs on the EDT once the image is available; failed URLs are not retried for a while.
+    public BufferedImage get(String url, int width, int height, Fit fit, Runnable onLoaded)
+    {
+        String key = key(url, width, height, fit);
+        BufferedImage cached = fromMemory(key);
+        if (cached != null) return cached;
+
+        Long failedAt = failures.get(key);
+        if (failedAt != null && System.currentTimeMillis() - failedAt < FAILURE_RETRY_MS) return null;
+
+        load(url, width, height, fit).thenRun(() ->
+        {
+            if (onLoaded != null) SwingUtilities.invokeLater(onLoaded);
+        });
+        return null;
+    }
+
+    public CompletableFuture<BufferedImage> load(String url, int width, int height, Fit fit)
+    {
+        String key = key(url, width, height, fit);
+        BufferedImage cached = fromMemory(key);
+        if (cached != null) return CompletableFuture.completedFuture(cached);
+
+        CompletableFuture<BufferedImage> created = new CompletableFuture<>();
+        CompletableFuture<BufferedImage> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) return existing;
+
+        Path file = diskRoot.resolve(hash(key) + ".png");
+
+        CompletableFuture.supplyAsync(() -> readDisk(file), decodePool)
+                .thenCompose(image -> image != null
+                        ? CompletableFuture.completedFuture(image)
+                        : fetch(url).thenApplyAsync(bytes -> decodeAndScale(bytes, width, height, fit, file), decodePool))
+                .whenComplete((image, error) ->
+                {
+                    inFlight.remove(key, created);
+
+                    if (error != null || image == null)
+                    {
+                        failures.put(key, System.currentTimeMillis());
+                        created.completeExceptionally(error != null ? error : new IOException("Unreadable image: " + url));
+                        return;
+                    }
+
+                    failures.remove(key);
+                    remember(key, image);
+                    created.complete(image);
+                });
+
+        return created;
+    }
+
+    private CompletableFuture<byte[]> fetch(String url)
+    {
+        return Http.sendAsync(Http.request(url).GET().build(), HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(response ->
+                {
+                    try {
+                        Http.checkStatus(url, response.statusCode());
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                    return response.body();
+                });
+    }
+
+    private BufferedImage readDisk(Path file)
+    {
+        if (!Files.exists(file)) return null;
+
+        try {
+            BufferedImage image = ImageIO.read(file.toFile());
+            if (image == null) return null;
+
+            // The disk tier is pruned least recently used first, by mtime.
+            touch(file);
+            return toCompatible(image);
+        } catch (IOException e) {
+            System.err.println("Discarding unreadable cached image " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private BufferedImage decodeAndScale(byte[] bytes, int width, int height, Fit fit, Path file)
+    {
+        try {
+            BufferedImage original = ImageIO.read(new ByteArrayInputStream(bytes));
+            if (original == null) return null;
+
+            BufferedImage scaled = fit == Fit.COVER
+                    ? ImageScaler.cover(original, width, height)
+                    : ImageScaler.scale(original, width, height);
+            BufferedImage result = toCompatible(scaled);
+
+            writeDisk(file, scaled);
+            return result;
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private void writeDisk(Path file, BufferedImage image)
+    {
+        Path temp = file.resolveSibling(file.getFileName() + ".new");
+        try {
+            Files.createDirectories(diskRoot);
+            ImageIO.write(image, "png", temp.toFile());
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Failed to cache image: " + e.getMessage());
+        }
+    }
+
+    private static void touch(Path file)
+    {
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException ignored) {}
+    }
+
+    // Deletes leftover temp files, then the least recently used images until the folder fits the disk budget.
+    public void pruneDisk()
+    {
+        if (!Files.isDirectory(diskRoot)) return;
+
+        List<Path> images = new ArrayList<>();
+        Map<Path, BasicFileAttributes> attributes = new HashMap<>();
+        long total = 0;
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(diskRoot))
+        {
+            for (Path file : stream)
+            {
+                BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                if (!attrs.isRegularFile()) continue;
+
+                if (file.getFileName().toString().endsWith(".new"))
+                {
+                    Files.deleteIfExists(file);
+                    continue;
+                }
+
+                images.add(file);
+                attributes.put(file, attrs);
+                total += attrs.size();
+            }
+        }
+        catch (IOException e)
+        {
+            System.err.println("Failed to prune image cache: " + e.getMessage());
+            return;
+        }
+
+        images.sort(Comparator.comparing(file -> attributes.get(file).lastModifiedTime()));
+        for (int i = 0; i < images.size() && total > diskBudget; i++)
+        {
+            try {
+                Files.deleteIfExists(images.get(i));
+                total -= attributes.get(images.get(i)).size();
+            } catch (IOException e) {
+                System.err.println("Failed to prune cached image " + images.get(i) + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private BufferedImage fromMemory(String key)
+    {
+        synchronized (memory) {
+            return memory.get(key);
+        }
+    }
+
+    private void remember(String key, BufferedImage image)
+    {
+        long size = (long) image.getWidth() * image.getHeight() * 4;
+
+        synchronized (memory)
+        {
+            BufferedImage previous = memory.put(key, image);
+            if (previous != null) memoryBytes -= (long) previous.getWidth() * previous.getHeight() * 4;
+            memoryBytes += size;
+
+            var it = memory.values().iterator();
+            while (memoryBytes > memoryBudget && memory.size() > 1)
+            {
+                BufferedImage evicted = it.next();
+                memoryBytes -= (long) evicted.getWidth() * evicted.getHeight() * 4;
+                it.remove();
+            }
+        }
+    }
+
+    // Matches the screen's pixel layout so painting is a plain blit.
+    private static BufferedImage toCompatible(BufferedImage image)
+    {
+        if (GraphicsEnvironment.isHeadless()) return image;
+
+        GraphicsConfiguration gc = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice().getDefaultConfiguration();
+        if (image.getColorModel().equals(gc.getColorModel(Transparency.TRANSLUCENT))) return image;
+
+        BufferedImage compatible = gc.createCompatibleImage(image.getWidth(), image.getHeight(), Transparency.TRANSLUCENT);
+        Graphics2D g = compatible.createGraphics();
+        g.drawImage(image, 0, 0, null);
+        g.dispose();
+        return compatible;
+    }
+
+    private static String key(String url, int width, int height, Fit fit) {
+        return url + "|" + width + "x" + height + "|" + fit;
+    }
+
+    private static String hash(String key)
+    {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
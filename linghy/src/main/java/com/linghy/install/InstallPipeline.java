@@ -0,0 +1,237 @@
+package com.linghy.install;
+
+import com.linghy.Startup;
+import com.linghy.butler.ButlerInstaller;
+import com.linghy.java.JREDownloader;
+import com.linghy.model.ProgressCallback;
+import com.linghy.model.ProgressUpdate;
+import com.linghy.net.Http;
+import com.linghy.pwr.GameInstaller;
+import com.linghy.version.GameVersion;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+// Everything needed before launch, as a dependency graph:
+//
+//   JRE ──────────────────────────────┐
+//   butler ─────────────┐             ├─> launch
+//   game download ──────┴─> apply ────┘
+//
+// Independent nodes run concurrently on the shared executor; progress is one weighted total.
+public class InstallPipeline
+{
+    private static final long ESTIMATED_JRE_BYTES = 60L * 1024 * 1024;
+    private static final long ESTIMATED_BUTLER_BYTES = 10L * 1024 * 1024;
+    private static final long ESTIMATED_GAME_BYTES = 1536L * 1024 * 1024;
+
+    @FunctionalInterface
+    private interface Task<T> {
+        T run(ProgressCallback callback) throws Exception;
+    }
+
+    private static class Node implements ProgressCallback
+    {
+        final String name;
+        final double weight;
+        final double from;
+        final double to;
+        final Pipeline pipeline;
+        double fraction;
+        Thread runner;
+
+        Node(Pipeline pipeline, String name, double weight, double from, double to)
+        {
+            this.pipeline = pipeline;
+            this.name = name;
+            this.weight = weight;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public void onProgress(ProgressUpdate update)
+        {
+            double local = (update.getProgress() - from) / (to - from);
+            pipeline.report(this, Math.max(0, Math.min(1, local)), update);
+        }
+
+        synchronized void attach() {
+            runner = Thread.currentThread();
+        }
+
+        synchronized void detach()
+        {
+            runner = null;
+            Thread.interrupted();
+        }
+
+        synchronized void interrupt()
+        {
+            if (runner != null) {
+                runner.interrupt();
+            }
+        }
+    }
+
+    private static class Pipeline
+    {
+        final ProgressCallback callback;
+        final List<Node> nodes = new ArrayList<>();
+        final List<CompletableFuture<?>> tasks = new ArrayList<>();
+        double lastReported;
+        // The failure that stopped the pipeline. Everything failing after it was most likely interrupted by it.
+        Throwable failure;
+
+        Pipeline(ProgressCallback callback) {
+            this.callback = callback;
+        }
+
+        Node node(String name, double weight, double from, double to)
+        {
+            Node node = new Node(this, name, weight, from, to);
+            nodes.add(node);
+            return node;
+        }
+
+        synchronized void report(Node node, double fraction, ProgressUpdate update)
+        {
+            node.fraction = Math.max(node.fraction, fraction);
+
+            double done = 0;
+            double total = 0;
+            for (Node n : nodes)
+            {
+                done += n.weight * n.fraction;
+                total += n.weight;
+            }
+
+            lastReported = Math.max(lastReported, total > 0 ? done * 100 / total : 0);
+            callback.onProgress(new ProgressUpdate(update.getStage(), lastReported, update.getMessage(),
+                    update.getCurrentFile(), update.getSpeed(), update.getDownloaded(), update.getTotal()));
+        }
+
+        synchronized void complete(Node node) {
+            node.fraction = 1;
+        }
+
+        <T> CompletableFuture<T> start(Node node, Task<T> task) {
+            return track(CompletableFuture.supplyAsync(() -> execute(node, task), Http.executor()));
+        }
+
+        <T> CompletableFuture<T> track(CompletableFuture<T> future)
+        {
+            tasks.add(future);
+            future.whenComplete((result, error) ->
+            {
+                if (error != null)
+                {
+                    fail(error);
+                    nodes.forEach(Node::interrupt);
+                }
+            });
+            return future;
+        }
+
+        synchronized void fail(Throwable error)
+        {
+            if (failure == null) {
+                failure = unwrap(error);
+            }
+        }
+
+        synchronized Throwable firstFailure() {
+            return failure;
+        }
+
+        <T> T execute(Node node, Task<T> task)
+        {
+            node.attach();
+            try {
+                T result = task.run(node);
+                complete(node);
+                return result;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            } finally {
+                node.detach();
+            }
+        }
+
+        // On failure the remaining nodes are interrupted and awaited, so a retry never races
+        // a download that is still writing the same partial file.
+        <T> T await(CompletableFuture<T> last) throws Exception
+        {
+            try {
+                return last.get();
+            } catch (ExecutionException e) {
+                fail(e.getCause());
+                nodes.forEach(Node::interrupt);
+                for (CompletableFuture<?> task : tasks)
+                {
+                    try {
+                        task.join();
+                    } catch (Exception ignored) {}
+                }
+
+                // Report what went wrong first, not the interrupt or cancellation it caused in the other nodes.
+                Throwable cause = firstFailure();
+                if (cause instanceof Exception ex) throw ex;
+                throw e;
+            }
+        }
+
+        private static Throwable unwrap(Throwable error)
+        {
+            while ((error instanceof CompletionException || error instanceof ExecutionException)
+                    && error.getCause() != null) {
+                error = error.getCause();
+            }
+            return error;
+        }
+    }
+
+    public static Path install(GameVersion version, ProgressCallback callback) throws Exception
+    {
+        // The startup cleanup deletes partial downloads and game folders; it must be done before new ones appear.
+        Startup.awaitDeferred();
+
+        Pipeline pipeline = new Pipeline(callback);
+        boolean installed = GameInstaller.isGameVersionInstalled(version);
+        long gameBytes = version.getSize() > 0 ? version.getSize() : ESTIMATED_GAME_BYTES;
+
+        // Weights approximate the time each step takes; applying is roughly half the cost of downloading.
+        Node jre = pipeline.node("jre", ESTIMATED_JRE_BYTES, 0, 100);
+        Node butler = pipeline.node("butler", installed ? 0 : ESTIMATED_BUTLER_BYTES, 0, 100);
+        Node download = pipeline.node("game", installed ? 0 : gameBytes, 0, 40);
+        Node apply = pipeline.node("game", installed ? 0 : gameBytes / 2.0, 45, 100);
+
+        CompletableFuture<Void> jreTask = pipeline.start(jre, cb -> {
+            JREDownloader.downloadJRE(cb);
+            return null;
+        });
+
+        CompletableFuture<Path> gameTask;
+        if (installed)
+        {
+            gameTask = pipeline.start(download, cb -> GameInstaller.installGameVersion(version, cb));
+        }
+        else
+        {
+            CompletableFuture<Path> butlerTask = pipeline.start(butler, ButlerInstaller::installButler);
+            CompletableFuture<GameInstaller.PreparedInstall> downloadTask =
+                    pipeline.start(download, cb -> GameInstaller.downloadGameVersion(version, cb));
+
+            gameTask = pipeline.track(downloadTask.thenCombineAsync(butlerTask,
+                    (prepared, butlerPath) -> pipeline.execute(apply,
+                            cb -> GameInstaller.applyGameVersion(prepared, butlerPath, cb)),
+                    Http.executor()));
+        }
+
+        return pipeline.await(gameTask.thenCombine(jreTask, (gameDir, ignored) -> gameDir));
+    }
+}
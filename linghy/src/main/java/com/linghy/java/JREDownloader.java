@@ -1,171 +1,386 @@
 package com.linghy.java;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.linghy.cache.ArtifactCache;
 import com.linghy.env.Environment;
 import com.linghy.model.JREManifest;
 import com.linghy.model.ProgressCallback;
 import com.linghy.model.ProgressUpdate;
+import com.linghy.net.Checksum;
+import com.linghy.net.Endpoints;
+import com.linghy.net.Http;
 
 import java.io.*;
 import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
-import java.security.MessageDigest;
-import java.util.HexFormat;
+import java.nio.file.attribute.BasicFileAttributes;
 
 public class JREDownloader
 {
-    private static final String JRE_MANIFEST_URL =
-            "https://launcher.hytale.com/version/release/jre.json";
-
+    // JREs live side by side in jre/<version>; this file names the one to launch with.
+    private static final String CURRENT_POINTER = "current";
+    private static final String LEGACY_DIR = "latest";
+    private static final String STAGING_PREFIX = ".staging-";
+    // The last manifest fetched, so an installed JRE can be checked against it without waiting for the network.
+    private static final String MANIFEST_CACHE = "manifest.json";
+
+    // A replaced JRE is only removed once it has been out of use this long and no process runs from it.
+    private static final String RETIRED_MARKER = ".retired";
+    private static final long RETIRED_GRACE_MS = 3L * 24 * 60 * 60 * 1000;
+
+    // Every run also sweeps retired JREs whose grace period is over, whether or not anything was installed.
     public static void downloadJRE(ProgressCallback callback) throws Exception
+    {
+        try {
+            installJRE(callback);
+        } finally {
+            collectGarbageAsync(getJRERoot());
+        }
+    }
+
+    private static void installJRE(ProgressCallback callback) throws Exception
     {
         String osName = Environment.getOS();
         String arch = Environment.getArch();
-
-        Path basePath = Environment.getDefaultAppDir();
-        Path cacheDir = basePath.resolve("cache");
-        Path jreLatest = basePath.resolve("release").resolve("package")
-                .resolve("jre").resolve("latest");
-
-        if (isJREInstalled(jreLatest))
+        Path jreRoot = getJRERoot();
+        adoptLegacyJRE(jreRoot);
+
+        // An installed JRE is used straight away; the manifest is refreshed in the background and a newer
+        // JRE it names is installed on the next run.
+        Path current = getCurrentJRE();
+        JREManifest known = readCachedManifest(jreRoot);
+        if (current != null && (known == null || platformFor(known) == null
+                || current.getFileName().toString().equals(directoryName(known.getVersion(), platformFor(known).getSha256()))))
         {
-            System.out.println("JRE already installed, skipping");
+            System.out.println("JRE " + current.getFileName() + " already installed, skipping");
             callback.onProgress(new ProgressUpdate("jre", 100,
                     "JRE already installed", "", "", 0, 0));
+            refreshManifestAsync(jreRoot);
             return;
         }
 
-        HttpClient client = HttpClient.newHttpClient();
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(JRE_MANIFEST_URL))
-                .GET()
-                .build();
+        JREManifest manifest;
+        try {
+            manifest = fetchManifest(jreRoot);
+        } catch (IOException | JsonParseException e) {
+            if (current == null) throw e;
 
-        HttpResponse<String> response = client.send(request,
-                HttpResponse.BodyHandlers.ofString());
-
-        Gson gson = new Gson();
-        JREManifest manifest = gson.fromJson(response.body(), JREManifest.class);
+            System.out.println("JRE manifest unavailable, keeping installed JRE: " + e.getMessage());
+            callback.onProgress(new ProgressUpdate("jre", 100,
+                    "JRE already installed", "", "", 0, 0));
+            return;
+        }
 
-        JREManifest.JREPlatform platform = manifest.getDownloadUrl()
-                .get(osName).get(arch);
+        JREManifest.JREPlatform platform = platformFor(manifest);
 
         if (platform == null) {
             throw new Exception("No JRE available for " + osName + "/" + arch);
         }
 
+        String version = directoryName(manifest.getVersion(), platform.getSha256());
+        Path versionDir = jreRoot.resolve(version);
+
+        if (isJREInstalled(versionDir))
+        {
+            System.out.println("JRE " + version + " already installed, skipping");
+            publish(jreRoot, version);
+            callback.onProgress(new ProgressUpdate("jre", 100,
+                    "JRE already installed", "", "", 0, 0));
+            return;
+        }
+
         String fileName = Paths.get(URI.create(platform.getUrl()).getPath())
                 .getFileName().toString();
-        Path cacheFile = cacheDir.resolve(fileName);
-        Path tempFile = Paths.get(cacheFile.toString() + ".tmp");
-
-        Files.deleteIfExists(tempFile);
+        Checksum checksum = Checksum.sha256(platform.getSha256());
+        ArtifactCache cache = ArtifactCache.get();
 
-        if (!Files.exists(cacheFile))
+        Path archive = cache.find(platform.getUrl(), checksum);
+        if (archive == null)
         {
             System.out.println("Downloading JRE...");
             callback.onProgress(new ProgressUpdate("jre", 0,
                     "Downloading JRE...", fileName, "", 0, 0));
 
-            downloadFile(platform.getUrl(), tempFile, callback, fileName);
-            Files.move(tempFile, cacheFile, StandardCopyOption.ATOMIC_MOVE);
+            archive = cache.fetch(platform.getUrl(), fileName, checksum, (downloaded, total, speed) ->
+            {
+                double percent = total > 0 ? (downloaded * 100.0 / total) : 0;
+                callback.onProgress(new ProgressUpdate("jre", percent,
+                        "Downloading JRE...", fileName, speed, downloaded, total));
+            });
         }
-
-        System.out.println("Verifying JRE...");
-        callback.onProgress(new ProgressUpdate("jre", 90,
-                "Verifying JRE...", fileName, "", 0, 0));
-
-        if (!verifySHA256(cacheFile, platform.getSha256()))
+        else
         {
-            Files.deleteIfExists(cacheFile);
-            throw new Exception("SHA256 verification failed");
+            System.out.println("JRE archive cached: " + archive);
         }
 
-        System.out.println("Extracting JRE...");
+        System.out.println("Extracting JRE " + version + "...");
         callback.onProgress(new ProgressUpdate("jre", 95,
                 "Extracting JRE...", fileName, "", 0, 0));
 
-        JREExtractor.extractJRE(cacheFile, jreLatest);
+        // The previous JRE stays usable until the rename below, so a crash here leaves nothing half-installed.
+        Path staging = jreRoot.resolve(STAGING_PREFIX + version + "-" + System.nanoTime());
+        try {
+            JREExtractor.extractJRE(archive, staging);
 
-        if (!osName.equals("windows"))
-        {
-            Path javaBin = jreLatest.resolve("bin").resolve("java");
-            if (Files.exists(javaBin)) {
-                javaBin.toFile().setExecutable(true);
+            if (!osName.equals("windows"))
+            {
+                Path javaBin = staging.resolve("bin").resolve("java");
+                if (Files.exists(javaBin)) {
+                    javaBin.toFile().setExecutable(true);
+                }
             }
+
+            if (!isJREInstalled(staging)) {
+                throw new IOException("Extracted JRE has no java executable");
+            }
+
+            deleteRecursively(versionDir);
+            Files.move(staging, versionDir, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            deleteRecursively(staging);
+            throw e;
         }
 
-        Files.deleteIfExists(cacheFile);
+        publish(jreRoot, version);
 
-        System.out.println("JRE installed successfully");
+        System.out.println("JRE " + version + " installed successfully");
         callback.onProgress(new ProgressUpdate("jre", 100,
                 "JRE installed", "", "", 0, 0));
     }
 
-    private static void downloadFile(String url, Path dest,
-                                     ProgressCallback callback, String fileName) throws Exception
+    private static JREManifest.JREPlatform platformFor(JREManifest manifest)
     {
-        HttpClient client = HttpClient.newHttpClient();
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(url))
-                .GET()
-                .build();
+        if (manifest.getDownloadUrl() == null) return null;
 
-        HttpResponse<InputStream> response = client.send(request,
-                HttpResponse.BodyHandlers.ofInputStream());
+        var platforms = manifest.getDownloadUrl().get(Environment.getOS());
+        return platforms != null ? platforms.get(Environment.getArch()) : null;
+    }
 
-        long total = response.headers().firstValueAsLong("Content-Length").orElse(-1);
-        long downloaded = 0;
-        long startTime = System.currentTimeMillis();
-        long lastUpdate = startTime;
+    // Parse errors count as an unusable response, the same as a network failure.
+    private static JREManifest fetchManifest(Path jreRoot) throws IOException, InterruptedException
+    {
+        String json = Http.getString(Endpoints.JRE_MANIFEST);
+        JREManifest manifest = new Gson().fromJson(json, JREManifest.class);
+        if (manifest == null || manifest.getDownloadUrl() == null) {
+            throw new IOException("Malformed JRE manifest");
+        }
+
+        try {
+            Files.createDirectories(jreRoot);
+            Path temp = jreRoot.resolve(MANIFEST_CACHE + ".new");
+            Files.writeString(temp, json, StandardCharsets.UTF_8);
+            Files.move(temp, jreRoot.resolve(MANIFEST_CACHE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Failed to cache JRE manifest: " + e.getMessage());
+        }
+        return manifest;
+    }
+
+    private static JREManifest readCachedManifest(Path jreRoot)
+    {
+        Path file = jreRoot.resolve(MANIFEST_CACHE);
+        if (!Files.exists(file)) return null;
+
+        try {
+            return new Gson().fromJson(Files.readString(file, StandardCharsets.UTF_8), JREManifest.class);
+        } catch (IOException | JsonParseException e) {
+            return null;
+        }
+    }
 
-        try (InputStream in = response.body();
-             OutputStream out = Files.newOutputStream(dest))
+    private static void refreshManifestAsync(Path jreRoot)
+    {
+        Http.executor().execute(() ->
         {
-            byte[] buffer = new byte[8192];
-            int bytesRead;
+            try {
+                fetchManifest(jreRoot);
+            } catch (Exception e) {
+                System.err.println("JRE manifest refresh failed: " + e.getMessage());
+            }
+        });
+    }
 
-            while ((bytesRead = in.read(buffer)) != -1)
-            {
-                out.write(buffer, 0, bytesRead);
-                downloaded += bytesRead;
+    private static Path getJRERoot() {
+        return Environment.getDefaultAppDir().resolve("release").resolve("package").resolve("jre");
+    }
 
-                long now = System.currentTimeMillis();
+    private static String directoryName(String version, String sha256)
+    {
+        String name = version != null && !version.isBlank()
+                ? version.trim()
+                : "sha-" + sha256.substring(0, Math.min(12, sha256.length()));
+        return name.replaceAll("[^A-Za-z0-9._+-]", "_");
+    }
 
-                if (now - lastUpdate > 200)
-                {
-                    double percent = total > 0 ? (downloaded * 100.0 / total) : 0;
-                    double elapsed = (now - startTime) / 1000.0;
-                    String speed = elapsed > 0
-                            ? String.format("%.2f MB/s", downloaded / 1024.0 / 1024.0 / elapsed)
-                            : "";
+    private static void publish(Path jreRoot, String version) throws IOException
+    {
+        Path pointer = jreRoot.resolve(CURRENT_POINTER);
+        String previous = Files.exists(pointer) ? Files.readString(pointer, StandardCharsets.UTF_8).trim() : null;
+        if (version.equals(previous)) {
+            return;
+        }
+
+        Path temp = jreRoot.resolve(CURRENT_POINTER + ".new");
+        Files.writeString(temp, version, StandardCharsets.UTF_8);
+        Files.move(temp, pointer, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        // The grace period for the replaced JRE starts now, not when it was installed.
+        if (previous != null && !previous.isEmpty() && Files.isDirectory(jreRoot.resolve(previous))) {
+            retire(jreRoot.resolve(previous));
+        }
+        Files.deleteIfExists(versionMarker(jreRoot.resolve(version)));
+    }
+
+    // Launchers before versioned JREs installed into jre/latest. That install is moved to the directory a manifest
+    // of the same version would name and published, so upgrading does not download the JRE again. If it cannot be
+    // moved, e.g. a game is running from it on Windows, it is published where it is and retired like any other.
+    private static void adoptLegacyJRE(Path jreRoot)
+    {
+        Path legacy = jreRoot.resolve(LEGACY_DIR);
+        if (Files.exists(jreRoot.resolve(CURRENT_POINTER)) || !isJREInstalled(legacy)) return;
+
+        String runtime = runtimeVersion(legacy);
+        String version = runtime != null && !runtime.isBlank() ? directoryName(runtime, "") : LEGACY_DIR;
+        try {
+            Path versionDir = jreRoot.resolve(version);
+            if (!version.equals(LEGACY_DIR) && !Files.exists(versionDir))
+            {
+                try {
+                    Files.move(legacy, versionDir, StandardCopyOption.ATOMIC_MOVE);
+                } catch (IOException e) {
+                    System.err.println("Could not move legacy JRE, keeping it in place: " + e.getMessage());
+                    version = LEGACY_DIR;
+                }
+            }
+            else if (!isJREInstalled(versionDir))
+            {
+                version = LEGACY_DIR;
+            }
 
-                    callback.onProgress(new ProgressUpdate("jre", percent,
-                            "Downloading JRE...", fileName, speed, downloaded, total));
+            publish(jreRoot, version);
+            System.out.println("Adopted legacy JRE as " + version);
+        } catch (IOException e) {
+            System.err.println("Failed to adopt legacy JRE: " + e.getMessage());
+        }
+    }
 
-                    lastUpdate = now;
+    // JAVA_RUNTIME_VERSION from the JRE's release file, the same string the manifest carries; null if unknown.
+    private static String runtimeVersion(Path jreDir)
+    {
+        try {
+            for (String line : Files.readAllLines(jreDir.resolve("release"), StandardCharsets.UTF_8))
+            {
+                if (line.startsWith("JAVA_RUNTIME_VERSION=")) {
+                    return line.substring("JAVA_RUNTIME_VERSION=".length()).replace("\"", "").trim();
                 }
             }
+        } catch (IOException ignored) {}
+        return null;
+    }
+
+    private static Path versionMarker(Path versionDir) {
+        return versionDir.resolve(RETIRED_MARKER);
+    }
+
+    private static void retire(Path versionDir)
+    {
+        try {
+            Files.writeString(versionMarker(versionDir), String.valueOf(System.currentTimeMillis()));
+        } catch (IOException e) {
+            System.err.println("Could not mark JRE " + versionDir.getFileName() + " as replaced: " + e.getMessage());
         }
     }
 
-    private static boolean verifySHA256(Path file, String expected) throws Exception
+    private static Path getCurrentJRE()
     {
-        MessageDigest digest = MessageDigest.getInstance("SHA-256");
-        try (InputStream in = Files.newInputStream(file))
+        Path jreRoot = getJRERoot();
+
+        try {
+            Path pointer = jreRoot.resolve(CURRENT_POINTER);
+            if (Files.exists(pointer))
+            {
+                Path current = jreRoot.resolve(Files.readString(pointer, StandardCharsets.UTF_8).trim());
+                if (isJREInstalled(current)) return current;
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to read JRE pointer: " + e.getMessage());
+        }
+
+        Path legacy = jreRoot.resolve(LEGACY_DIR);
+        return isJREInstalled(legacy) ? legacy : null;
+    }
+
+    // Only version directories the pointer no longer names are candidates, including an adopted legacy directory;
+    // staging directories of a concurrent install are never touched. A candidate is removed once it has been
+    // replaced for RETIRED_GRACE_MS and no running process was started from it. Failures are retried next time.
+    private static void collectGarbageAsync(Path jreRoot)
+    {
+        Path pointer = jreRoot.resolve(CURRENT_POINTER);
+        if (!Files.exists(pointer)) return;
+
+        Thread gc = new Thread(() ->
         {
-            byte[] buffer = new byte[8192];
-            int bytesRead;
-            while ((bytesRead = in.read(buffer)) != -1) {
-                digest.update(buffer, 0, bytesRead);
+            String keep;
+            try {
+                keep = Files.readString(pointer, StandardCharsets.UTF_8).trim();
+            } catch (IOException e) {
+                System.err.println("JRE cleanup skipped, pointer unreadable: " + e.getMessage());
+                return;
             }
+            if (keep.isEmpty()) return;
+
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(jreRoot))
+            {
+                for (Path entry : stream)
+                {
+                    String name = entry.getFileName().toString();
+                    if (!Files.isDirectory(entry) || name.equals(keep) || name.startsWith(STAGING_PREFIX)) continue;
+
+                    if (!retiredLongEnough(entry) || inUse(entry)) continue;
+
+                    try {
+                        deleteRecursively(entry);
+                        System.out.println("Removed old JRE: " + name);
+                    } catch (IOException e) {
+                        System.err.println("Could not remove old JRE " + name + ": " + e.getMessage());
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("JRE cleanup failed: " + e.getMessage());
+            }
+        }, "linghy-jre-gc");
+
+        gc.setDaemon(true);
+        gc.setPriority(Thread.MIN_PRIORITY);
+        gc.start();
+    }
+
+    private static boolean retiredLongEnough(Path versionDir)
+    {
+        Path marker = versionMarker(versionDir);
+        try {
+            if (!Files.exists(marker))
+            {
+                // Replaced before markers existed: start its grace period now.
+                retire(versionDir);
+                return false;
+            }
+            long retiredAt = Long.parseLong(Files.readString(marker, StandardCharsets.UTF_8).trim());
+            return System.currentTimeMillis() - retiredAt >= RETIRED_GRACE_MS;
+        } catch (IOException | NumberFormatException e) {
+            return false;
         }
+    }
 
-        String calculated = HexFormat.of().formatHex(digest.digest());
-        return calculated.equalsIgnoreCase(expected);
+    // A game or server still running on this JRE keeps it alive.
+    private static boolean inUse(Path versionDir)
+    {
+        Path dir = versionDir.toAbsolutePath().normalize();
+        return ProcessHandle.allProcesses().anyMatch(process -> process.info().command()
+                .map(command -> Path.of(command).toAbsolutePath().normalize().startsWith(dir))
+                .orElse(false));
     }
 
     private static boolean isJREInstalled(Path jreDir)
@@ -177,18 +392,35 @@ public class JREDownloader
 
     public static String getJavaExec()
     {
-        Path jreDir = Environment.getDefaultAppDir()
-                .resolve("release").resolve("package").resolve("jre").resolve("latest");
+        Path jreDir = getCurrentJRE();
 
-        String javaBin = Environment.getOS().equals("windows")
-                ? "java.exe" : "java";
-        Path javaPath = jreDir.resolve("bin").resolve(javaBin);
-
-        if (Files.exists(javaPath)) {
-            return javaPath.toString();
+        if (jreDir != null)
+        {
+            String javaBin = Environment.getOS().equals("windows")
+                    ? "java.exe" : "java";
+            return jreDir.resolve("bin").resolve(javaBin).toString();
         }
 
         System.err.println("Warning: JRE not found, falling back to system java");
         return "java";
     }
-}
\ No newline at end of file
+
+    private static void deleteRecursively(Path path) throws IOException
+    {
+        if (!Files.exists(path)) return;
+
+        Files.walkFileTree(path, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
@@ -1,18 +1,31 @@
 package com.linghy.java;
 
+import com.linghy.env.Environment;
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
 import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
-import java.util.stream.StreamSupport;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
 
 public class JREExtractor
 {
+    private static final int EXTRACT_THREADS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    private static final int PIPE_CHUNK_SIZE = 1024 * 1024;
+    private static final int PIPE_DEPTH = 8;
 
     public static void extractJRE(Path archive, Path destDir) throws IOException
     {
@@ -30,93 +43,426 @@ public class JREExtractor
         } else {
             throw new IOException("Unsupported archive format: " + fileName);
         }
-
-        flattenJREDir(destDir);
     }
 
+    // The central directory is read up front, so the single top-level folder JRE archives ship with
+    // is stripped while writing, and entries are spread over a small pool. Stored entries are copied
+    // straight out of the archive channel; deflated ones stream through transferFrom.
     private static void extractZip(Path zipFile, Path destDir) throws IOException
     {
-        try (ZipInputStream zis = new ZipInputStream(Files.newInputStream(zipFile)))
+        try (ZipFile zip = new ZipFile(zipFile.toFile());
+             FileChannel archive = FileChannel.open(zipFile, StandardOpenOption.READ))
         {
-            ZipEntry entry;
+            List<ZipArchiveEntry> entries = Collections.list(zip.getEntries());
+            String prefix = commonRoot(entries.stream().map(ZipArchiveEntry::getName).toList());
 
-            while ((entry = zis.getNextEntry()) != null)
+            Map<ZipArchiveEntry, Path> files = new LinkedHashMap<>();
+            Map<Path, String> symlinks = new LinkedHashMap<>();
+            for (ZipArchiveEntry entry : entries)
             {
-                Path filePath = destDir.resolve(entry.getName()).normalize();
-
-                if (!filePath.startsWith(destDir)) {
-                    throw new IOException("Illegal file path: " + entry.getName());
-                }
+                Path target = resolveEntry(destDir, entry.getName(), prefix);
+                if (target == null) continue;
 
                 if (entry.isDirectory())
                 {
-                    Files.createDirectories(filePath);
+                    Files.createDirectories(target);
+                }
+                else if (entry.isUnixSymlink())
+                {
+                    symlinks.put(target, zip.getUnixSymlink(entry));
                 }
                 else
                 {
-                    Files.createDirectories(filePath.getParent());
-                    Files.copy(zis, filePath, StandardCopyOption.REPLACE_EXISTING);
+                    Files.createDirectories(target.getParent());
+                    files.put(entry, target);
+                }
+            }
+
+            List<ZipArchiveEntry> bySize = new ArrayList<>(files.keySet());
+            bySize.sort(Comparator.comparingLong(ZipArchiveEntry::getSize).reversed());
+
+            ExecutorService pool = Executors.newFixedThreadPool(EXTRACT_THREADS, extractThreads());
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (ZipArchiveEntry entry : bySize)
+                {
+                    futures.add(pool.submit(() -> {
+                        writeZipEntry(zip, archive, entry, files.get(entry));
+                        return null;
+                    }));
+                }
+
+                for (Future<?> future : futures) {
+                    await(future);
+                }
+            } finally {
+                pool.shutdownNow();
+            }
+
+            createSymlinks(destDir, symlinks);
+        }
+    }
+
+    private static void writeZipEntry(ZipFile zip, FileChannel archive, ZipArchiveEntry entry,
+                                      Path target) throws IOException
+    {
+        long size = entry.getSize();
+
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            if (entry.getMethod() == ZipEntry.STORED && entry.getDataOffset() >= 0 && size >= 0)
+            {
+                long position = 0;
+                while (position < size) {
+                    position += archive.transferTo(entry.getDataOffset() + position, size - position, out);
                 }
+            }
+            else
+            {
+                try (InputStream in = zip.getInputStream(entry))
+                {
+                    ReadableByteChannel source = Channels.newChannel(in);
+                    long position = 0;
 
-                zis.closeEntry();
+                    while (size < 0 || position < size)
+                    {
+                        long transferred = out.transferFrom(source, position, size < 0 ? PIPE_CHUNK_SIZE : size - position);
+                        if (transferred <= 0) break;
+                        position += transferred;
+                    }
+
+                    if (size >= 0 && position != size) {
+                        throw new IOException("Truncated entry " + entry.getName() + ": " + position + " of " + size);
+                    }
+                }
             }
         }
+
+        if (!Environment.getOS().equals("windows") && (entry.getUnixMode() & 0100) != 0) {
+            target.toFile().setExecutable(true);
+        }
     }
 
     private static void extractTarGz(Path tarGzFile, Path destDir) throws IOException
     {
-        try (InputStream fi = Files.newInputStream(tarGzFile);
-             GzipCompressorInputStream gzi = new GzipCompressorInputStream(fi);
-             TarArchiveInputStream tai = new TarArchiveInputStream(gzi)) {
+        try {
+            extractTarGz(tarGzFile, destDir, true);
+        } catch (LayoutMismatchException e) {
+            // More than one top-level entry after all: start over and keep the layout as is.
+            deleteRecursively(destDir);
+            Files.createDirectories(destDir);
+            extractTarGz(tarGzFile, destDir, false);
+        }
+    }
 
-            TarArchiveEntry entry;
-            while ((entry = tai.getNextEntry()) != null)
+    private static class LayoutMismatchException extends IOException
+    {
+        LayoutMismatchException(String entry) {
+            super("Entry outside the archive root: " + entry);
+        }
+    }
+
+    private static class Chunk
+    {
+        static final Chunk END = new Chunk(null, null, false, false, 0, null);
+
+        final Path path;
+        final ByteBuffer data;
+        final boolean first;
+        final boolean last;
+        final int mode;
+        final Path linkTo;
+
+        Chunk(Path path, ByteBuffer data, boolean first, boolean last, int mode, Path linkTo)
+        {
+            this.path = path;
+            this.data = data;
+            this.first = first;
+            this.last = last;
+            this.mode = mode;
+            this.linkTo = linkTo;
+        }
+    }
+
+    // gzip inflation and tar parsing run on a reader thread and hand file data over a bounded queue,
+    // so decompression and disk writes overlap instead of taking turns. Tarballs are not indexed,
+    // so the top-level folder is taken from the first entry and checked against every later one.
+    private static void extractTarGz(Path tarGzFile, Path destDir, boolean stripRoot) throws IOException
+    {
+        BlockingQueue<Chunk> queue = new ArrayBlockingQueue<>(PIPE_DEPTH);
+        AtomicReference<Throwable> readerError = new AtomicReference<>();
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Map<Path, String> symlinks = new LinkedHashMap<>();
+
+        Thread reader = extractThreads().newThread(() ->
+        {
+            try {
+                readTar(tarGzFile, destDir, stripRoot, queue, cancelled, symlinks);
+            } catch (Throwable t) {
+                readerError.set(t);
+            } finally {
+                try {
+                    while (!queue.offer(Chunk.END, 100, TimeUnit.MILLISECONDS) && !cancelled.get()) { }
+                } catch (InterruptedException ignored) {}
+            }
+        });
+        reader.start();
+
+        FileChannel out = null;
+        try {
+            while (true)
             {
-                Path filePath = destDir.resolve(entry.getName()).normalize();
+                Chunk chunk = queue.take();
+                if (chunk == Chunk.END) break;
 
-                if (!filePath.startsWith(destDir)) {
-                    throw new IOException("Illegal file path: " + entry.getName());
+                if (chunk.linkTo != null)
+                {
+                    Files.deleteIfExists(chunk.path);
+                    Files.createLink(chunk.path, chunk.linkTo);
+                    continue;
                 }
 
-                if (entry.isDirectory())
+                if (chunk.first)
                 {
-                    Files.createDirectories(filePath);
+                    out = FileChannel.open(chunk.path, StandardOpenOption.CREATE,
+                            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
                 }
-                else
+
+                while (chunk.data.hasRemaining()) {
+                    out.write(chunk.data);
+                }
+
+                if (chunk.last)
                 {
-                    Files.createDirectories(filePath.getParent());
-                    Files.copy(tai, filePath, StandardCopyOption.REPLACE_EXISTING);
+                    out.close();
+                    out = null;
 
-                    if ((entry.getMode() & 0100) != 0) {
-                        filePath.toFile().setExecutable(true);
+                    if ((chunk.mode & 0100) != 0) {
+                        chunk.path.toFile().setExecutable(true);
                     }
                 }
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while extracting " + tarGzFile.getFileName(), e);
+        } finally {
+            cancelled.set(true);
+            if (out != null) out.close();
         }
+
+        try {
+            reader.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        Throwable error = readerError.get();
+        if (error instanceof IOException io) throw io;
+        if (error != null) throw new IOException("Failed to read " + tarGzFile.getFileName(), error);
+
+        createSymlinks(destDir, symlinks);
     }
 
-    private static void flattenJREDir(Path jreDir) throws IOException
+    private static void readTar(Path tarGzFile, Path destDir, boolean stripRoot,
+                                BlockingQueue<Chunk> queue, AtomicBoolean cancelled,
+                                Map<Path, String> symlinks) throws Exception
     {
-        try (DirectoryStream<Path> stream = Files.newDirectoryStream(jreDir))
+        try (InputStream fi = new BufferedInputStream(Files.newInputStream(tarGzFile), 256 * 1024);
+             GzipCompressorInputStream gzi = new GzipCompressorInputStream(fi);
+             TarArchiveInputStream tai = new TarArchiveInputStream(gzi))
         {
-            Path[] entries = StreamSupport.stream(stream.spliterator(), false)
-                    .toArray(Path[]::new);
+            String prefix = null;
+            boolean first = true;
+            TarArchiveEntry entry;
 
-            if (entries.length == 1 && Files.isDirectory(entries[0])) {
-                Path nested = entries[0];
+            while ((entry = tai.getNextEntry()) != null && !cancelled.get())
+            {
+                String name = stripDot(entry.getName());
+                if (name.isEmpty()) continue;
 
-                try (DirectoryStream<Path> nestedStream = Files.newDirectoryStream(nested)) {
-                    for (Path file : nestedStream) {
-                        Files.move(file, jreDir.resolve(file.getFileName()),
-                                StandardCopyOption.REPLACE_EXISTING);
+                if (first && stripRoot)
+                {
+                    int slash = name.indexOf('/');
+                    if (slash > 0 && (entry.isDirectory() || slash < name.length() - 1)) {
+                        prefix = name.substring(0, slash + 1);
                     }
                 }
+                first = false;
 
-                deleteRecursively(nested);
+                if (prefix != null && !name.startsWith(prefix) && !name.equals(prefix.substring(0, prefix.length() - 1))) {
+                    throw new LayoutMismatchException(name);
+                }
+
+                Path target = resolveEntry(destDir, name, prefix);
+                if (target == null) continue;
+
+                if (entry.isDirectory())
+                {
+                    Files.createDirectories(target);
+                }
+                else if (entry.isSymbolicLink())
+                {
+                    symlinks.put(target, entry.getLinkName());
+                }
+                else if (entry.isLink())
+                {
+                    Path linkTo = resolveEntry(destDir, stripDot(entry.getLinkName()), prefix);
+                    if (linkTo == null) {
+                        throw new IOException("Illegal link target: " + entry.getLinkName());
+                    }
+                    Files.createDirectories(target.getParent());
+                    put(queue, new Chunk(target, null, false, false, 0, linkTo), cancelled);
+                }
+                else
+                {
+                    Files.createDirectories(target.getParent());
+
+                    boolean firstChunk = true;
+                    long remaining = entry.getSize();
+
+                    do {
+                        byte[] buffer = new byte[(int) Math.min(PIPE_CHUNK_SIZE, Math.max(remaining, 0))];
+                        int filled = 0;
+                        while (filled < buffer.length)
+                        {
+                            int read = tai.read(buffer, filled, buffer.length - filled);
+                            if (read < 0) break;
+                            filled += read;
+                        }
+
+                        if (filled < buffer.length) {
+                            throw new EOFException("Truncated entry " + name);
+                        }
+
+                        remaining -= filled;
+                        put(queue, new Chunk(target, ByteBuffer.wrap(buffer), firstChunk, remaining <= 0,
+                                entry.getMode(), null), cancelled);
+                        firstChunk = false;
+                    } while (remaining > 0);
+                }
             }
         }
     }
 
+    private static void put(BlockingQueue<Chunk> queue, Chunk chunk, AtomicBoolean cancelled)
+            throws InterruptedException, IOException
+    {
+        while (!queue.offer(chunk, 100, TimeUnit.MILLISECONDS))
+        {
+            if (cancelled.get()) {
+                throw new IOException("Extraction cancelled");
+            }
+        }
+    }
+
+    private static String stripDot(String name) {
+        return name.startsWith("./") ? name.substring(2) : name;
+    }
+
+    // Returns "dir/" when every entry lives under one top-level directory, null otherwise.
+    private static String commonRoot(List<String> names)
+    {
+        String root = null;
+        boolean nested = false;
+
+        for (String raw : names)
+        {
+            String name = stripDot(raw);
+            if (name.isEmpty()) continue;
+
+            int slash = name.indexOf('/');
+            String top = slash < 0 ? name : name.substring(0, slash);
+
+            if (root == null) {
+                root = top;
+            } else if (!root.equals(top)) {
+                return null;
+            }
+
+            if (slash >= 0 && slash < name.length() - 1) {
+                nested = true;
+            }
+        }
+
+        return root != null && nested ? root + "/" : null;
+    }
+
+    // Null for the stripped root itself; throws for anything that would land outside destDir.
+    private static Path resolveEntry(Path destDir, String name, String prefix) throws IOException
+    {
+        name = stripDot(name);
+
+        if (prefix != null)
+        {
+            if (name.equals(prefix) || name.equals(prefix.substring(0, prefix.length() - 1))) return null;
+            if (name.startsWith(prefix)) {
+                name = name.substring(prefix.length());
+            }
+        }
+
+        if (name.isEmpty()) return null;
+
+        Path filePath = destDir.resolve(name).normalize();
+        if (!filePath.startsWith(destDir)) {
+            throw new IOException("Illegal file path: " + name);
+        }
+
+        return filePath;
+    }
+
+    // Symlinks are created after every other entry, so nothing is ever written through one. Each target is
+    // resolved from the real location of the link's folder, which may itself run through an earlier link,
+    // and the link is checked again on disk once created; anything reaching outside destDir fails extraction.
+    private static void createSymlinks(Path destDir, Map<Path, String> symlinks) throws IOException
+    {
+        if (symlinks.isEmpty()) return;
+
+        Path realDest = destDir.toRealPath();
+        for (Map.Entry<Path, String> symlink : symlinks.entrySet())
+        {
+            Path link = symlink.getKey();
+            Path linkTo = Paths.get(symlink.getValue());
+
+            Files.createDirectories(link.getParent());
+            if (linkTo.isAbsolute() || !link.getParent().toRealPath().resolve(linkTo).normalize().startsWith(realDest)) {
+                throw new IOException("Illegal symlink target: " + symlink.getValue());
+            }
+
+            Files.deleteIfExists(link);
+            Files.createSymbolicLink(link, linkTo);
+
+            if (Files.exists(link) && !link.toRealPath().startsWith(realDest))
+            {
+                Files.delete(link);
+                throw new IOException("Illegal symlink target: " + symlink.getValue());
+            }
+        }
+    }
+
+    private static void await(Future<?> future) throws IOException
+    {
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            throw new IOException("Extraction failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while extracting", e);
+        }
+    }
+
+    private static ThreadFactory extractThreads()
+    {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, "linghy-extract-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
     private static void deleteRecursively(Path path) throws IOException
     {
         if (!Files.exists(path)) return;
@@ -135,4 +481,4 @@ public class JREExtractor
             }
         });
     }
-}
\ No newline at end of file
+}
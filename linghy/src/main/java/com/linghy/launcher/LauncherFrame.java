@@ -1,5 +1,6 @@
 package com.linghy.launcher;
 
+import com.linghy.Startup;
 import com.linghy.env.Environment;
 
 import javax.swing.*;
@@ -40,6 +41,13 @@ public class LauncherFrame extends JFrame
         addWindowDragListener();
     }
 
+    @Override
+    public void paint(Graphics g)
+    {
+        super.paint(g);
+        Startup.firstFrame();
+    }
+
     private void addWindowDragListener()
     {
         Point dragOffset = new Point();
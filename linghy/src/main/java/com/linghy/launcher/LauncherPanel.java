@@ -1,11 +1,14 @@
 package com.linghy.launcher;
 
+import com.linghy.Startup;
 import com.linghy.env.Environment;
+import com.linghy.image.ImageService;
+import com.linghy.install.InstallPipeline;
 import com.linghy.java.JREDownloader;
 import com.linghy.model.ProgressUpdate;
 import com.linghy.mods.ModManagerDialog;
 import com.linghy.patches.OnlineFix;
-import com.linghy.pwr.GameInstaller;
+import com.linghy.utils.AffinityMgr;
 
 import javax.imageio.ImageIO;
 import javax.swing.*;
@@ -15,28 +18,18 @@ import java.awt.image.BufferedImage;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.time.*;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.io.IOException;
-import java.time.format.DateTimeFormatter;
 import java.util.Random;
 import java.util.concurrent.TimeUnit;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import com.linghy.version.GameVersion;
 import com.linghy.version.VersionManager;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
 
 import static java.awt.Frame.ICONIFIED;
 
@@ -375,88 +368,6 @@ public class LauncherPanel extends JPanel
     @Deprecated
     private void finishEditingUsername() {}
 
-    private List<NewsItem> fetchHytaleNews()
-    {
-        List<NewsItem> news = new ArrayList<>();
-
-        try {
-            Document doc = Jsoup.connect("https://hytale.com/news")
-                    .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36")
-                    .timeout(8000)
-                    .get();
-
-            Elements wrappers = doc.select(".postWrapper");
-
-            for (Element wrapper : wrappers)
-            {
-                if (news.size() >= 6) break;
-
-                Element postLink = wrapper.selectFirst("a.post");
-                if (postLink == null) continue;
-
-                String title = getSafeText(wrapper, "h4.post__details__heading", "No Title");
-
-                Element bodyEl = wrapper.selectFirst("span.post__details__body");
-                String rawDesc = "";
-
-                if (bodyEl != null) {
-                    rawDesc = bodyEl.html()
-                            .replaceAll("(?i)<br\\s*/?>", "\n")
-                            .replaceAll("<[^>]+>", "")
-                            .trim();
-                }
-
-                String desc = rawDesc.length() > 120 ? rawDesc.substring(0, 120) + "..." : rawDesc;
-
-                String meta = getSafeText(wrapper, "span.post__details__meta", "");
-
-                String date = "Unknown date";
-
-                Pattern p = Pattern.compile(
-                        "(January|February|March|April|May|June|July|August|September|October|November|December)\\s+" +
-                                "\\d{1,2}(st|nd|rd|th)\\s+\\d{4}"
-                );
-
-                Matcher m = p.matcher(meta);
-                if (m.find()) {
-                    date = m.group();
-                }
-
-                String url = postLink.absUrl("href");
-
-                String imgUrl = "";
-                Element img = wrapper.selectFirst("span.post__image img");
-                if (img != null) {
-                    imgUrl = img.absUrl("src");
-                }
-
-                news.add(new NewsItem(title, date, desc, url, imgUrl));
-            }
-
-        } catch (Exception e) {
-            System.err.println("Hytale News Loading Error: " + e.getMessage());
-        }
-
-        if (news.isEmpty())
-        {
-            news.add(new NewsItem(
-                    "News unavailable",
-                    LocalDate.now().format(DateTimeFormatter.ofPattern("dd.MM.yyyy")),
-                    "Failed to load news. You may not have an internet connection.",
-                    "https://hytale.com/news",
-                    ""
-            ));
-        }
-
-        return news;
-    }
-
-    private String getSafeText(Element parent, String selector, String fallback)
-    {
-        Element el = parent.selectFirst(selector);
-        return (el != null) ? el.text() : fallback;
-    }
-
     private String escapeHtml(String input)
     {
         if (input == null) return "";
@@ -550,40 +461,8 @@ public class LauncherPanel extends JPanel
                 protected ImageIcon doInBackground() throws Exception
                 {
                     try {
-                        BufferedImage original = ImageIO.read(new URL(item.imageUrl));
-                        if (original == null) return null;
-
-                        int targetWidth = 180;
-                        int targetHeight = 120;
-
-                        double imgRatio = (double) original.getWidth() / original.getHeight();
-                        double panelRatio = (double) targetWidth / targetHeight;
-
-                        int newWidth, newHeight;
-                        int cropX = 0, cropY = 0;
-
-                        if (imgRatio > panelRatio)
-                        {
-                            newHeight = targetHeight;
-                            newWidth = (int) (targetHeight * imgRatio);
-                            cropX = (newWidth - targetWidth) / 2;
-                        }
-                        else
-                        {
-                            newWidth = targetWidth;
-                            newHeight = (int) (targetWidth / imgRatio);
-                            cropY = (newHeight - targetHeight) / 2;
-                        }
-
-                        Image scaled = original.getScaledInstance(newWidth, newHeight, Image.SCALE_SMOOTH);
-                        BufferedImage buffered = new BufferedImage(newWidth, newHeight, BufferedImage.TYPE_INT_ARGB);
-                        Graphics2D g2d = buffered.createGraphics();
-                        g2d.drawImage(scaled, 0, 0, null);
-                        g2d.dispose();
-
-                        BufferedImage cropped = buffered.getSubimage(cropX, cropY, targetWidth, targetHeight);
-
-                        return new ImageIcon(cropped);
+                        return new ImageIcon(ImageService.get()
+                                .load(item.imageUrl, 180, 120, ImageService.Fit.COVER).get());
                     } catch (Exception e) {
                         return null;
                     }
@@ -661,45 +540,20 @@ public class LauncherPanel extends JPanel
         loadingLabel.setFont(new Font("Segoe UI", Font.PLAIN, 14));
         panel.add(loadingLabel);
 
-        SwingWorker<List<NewsItem>, Void> newsWorker = new SwingWorker<>()
+        NewsService.get().load(newsItems ->
         {
-            @Override
-            protected List<NewsItem> doInBackground() {
-                return fetchHytaleNews();
-            }
+            panel.removeAll();
 
-            @Override
-            protected void done()
-            {
-                try {
-                    List<NewsItem> newsItems = get();
-                    panel.removeAll();
-
-                    for (NewsItem item : newsItems) {
-                        JPanel newsCard = createNewsCard(item);
-                        panel.add(newsCard);
-                        panel.add(Box.createVerticalStrut(14));
-                    }
-
-                    panel.revalidate();
-                    panel.repaint();
-                } catch (Exception e)
-                {
-                    System.err.println("Error loading news: " + e.getMessage());
-                    panel.removeAll();
-
-                    JLabel errorLabel = new JLabel("Error loading news", SwingConstants.CENTER);
-                    errorLabel.setForeground(new Color(239, 68, 68));
-                    errorLabel.setFont(new Font("Segoe UI", Font.PLAIN, 13));
-                    panel.add(errorLabel);
-
-                    panel.revalidate();
-                    panel.repaint();
-                }
+            for (NewsItem item : newsItems) {
+                JPanel newsCard = createNewsCard(item);
+                panel.add(newsCard);
+                panel.add(Box.createVerticalStrut(14));
             }
-        };
 
-        newsWorker.execute();
+            panel.revalidate();
+            panel.repaint();
+        });
+
         return panel;
     }
 
@@ -1117,6 +971,7 @@ public class LauncherPanel extends JPanel
                 } catch (Exception e) {
                     System.err.println("Error loading version: " + e.getMessage());
                 }
+                Startup.interactive();
             }
         };
         versionWorker.execute();
@@ -1279,13 +1134,10 @@ public class LauncherPanel extends JPanel
             protected Path doInBackground() throws Exception
             {
                 try {
-                    publish(new ProgressUpdate("jre", 0, "Checking JRE...", "", "", 0, 0));
-                    JREDownloader.downloadJRE(this::publish);
-
                     publish(new ProgressUpdate("game", 0, "Installing " +
                             versionToInstall.getName() + "...", "", "", 0, 0));
 
-                    Path gameDir = GameInstaller.installGameVersion(versionToInstall, this::publish);
+                    Path gameDir = InstallPipeline.install(versionToInstall, this::publish);
 
                     versionManager.markVersionInstalled(versionToInstall);
 
@@ -1441,6 +1293,8 @@ public class LauncherPanel extends JPanel
         System.out.println("Launching from: " + gameDir);
         System.out.println("Command: " + pb.command());
 
+        // On Linux the core mask is per thread and inherited by child processes, so apply it on this thread.
+        AffinityMgr.init();
         Process process = pb.start();
 
         SwingUtilities.invokeLater(() -> {
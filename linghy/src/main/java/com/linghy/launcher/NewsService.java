@@ -0,0 +1,243 @@
+package com.linghy.launcher;
+
+import com.google.gson.Gson;
+import com.linghy.env.Environment;
+import com.linghy.net.Endpoints;
+import com.linghy.net.Http;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+
+import javax.swing.*;
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// The hytale.com news feed, kept on disk as parsed items. The last known feed is shown straight away
+// and the page is revalidated in the background; it is only parsed again when its content changed.
+class NewsService
+{
+    private static final String NEWS_URL = Endpoints.NEWS;
+    private static final int MAX_ITEMS = 6;
+
+    // A relaunch shortly after the last check reuses the feed without asking the server.
+    private static final long REVALIDATE_AFTER_MS = 10 * 60 * 1000L;
+
+    private static final Pattern DATE = Pattern.compile(
+            "(January|February|March|April|May|June|July|August|September|October|November|December)\\s+" +
+                    "\\d{1,2}(st|nd|rd|th)\\s+\\d{4}");
+
+    private static final NewsService INSTANCE = new NewsService(
+            Environment.getDefaultAppDir().resolve("cache").resolve("news.json"));
+
+    private static class Snapshot
+    {
+        List<NewsItem> items;
+        String etag;
+        String lastModified;
+        String bodyHash;
+        long checkedAt;
+    }
+
+    private final Gson gson = new Gson();
+    private final Path file;
+
+    private NewsService(Path file) {
+        this.file = file;
+    }
+
+    static NewsService get() {
+        return INSTANCE;
+    }
+
+    // onNews runs on the EDT: first with the stored feed if there is one, then again only if the server's
+    // feed differs. Without a stored feed and without a connection it receives a single placeholder item.
+    void load(Consumer<List<NewsItem>> onNews)
+    {
+        // Not on Http.executor(): the stored feed should not wait for the HTTP clients to be built.
+        Thread thread = new Thread(() ->
+        {
+            Snapshot known = read();
+            if (known != null) {
+                SwingUtilities.invokeLater(() -> onNews.accept(known.items));
+            }
+
+            if (known != null && System.currentTimeMillis() - known.checkedAt < REVALIDATE_AFTER_MS) return;
+
+            try {
+                Snapshot fresh = revalidate(known);
+                if (fresh != known) {
+                    SwingUtilities.invokeLater(() -> onNews.accept(fresh.items));
+                }
+            } catch (Exception e) {
+                System.err.println("Hytale News Loading Error: " + e.getMessage());
+                if (known == null) {
+                    SwingUtilities.invokeLater(() -> onNews.accept(unavailable()));
+                }
+            }
+        }, "linghy-news");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Returns known itself when nothing changed.
+    private Snapshot revalidate(Snapshot known) throws Exception
+    {
+        HttpRequest.Builder request = Http.request(NEWS_URL)
+                .setHeader("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36")
+                .timeout(Duration.ofSeconds(8))
+                .GET();
+
+        if (known != null && known.etag != null) request.header("If-None-Match", known.etag);
+        if (known != null && known.lastModified != null) request.header("If-Modified-Since", known.lastModified);
+
+        HttpResponse<String> response = Http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+
+        if (response.statusCode() == 304 && known != null) {
+            return touch(known);
+        }
+        Http.checkStatus(NEWS_URL, response.statusCode());
+
+        // hytale.com does not always send validators, so an unchanged body is recognised by its hash.
+        String hash = hash(response.body());
+        if (known != null && hash.equals(known.bodyHash)) {
+            return touch(known);
+        }
+
+        List<NewsItem> items = parse(response.body());
+        if (items.isEmpty()) throw new IOException("No news posts found on " + NEWS_URL);
+
+        // Markup around the posts may change without the posts themselves changing.
+        boolean samePosts = known != null && gson.toJson(items).equals(gson.toJson(known.items));
+
+        Snapshot fresh = samePosts ? known : new Snapshot();
+        fresh.items = samePosts ? known.items : items;
+        fresh.etag = response.headers().firstValue("ETag").orElse(null);
+        fresh.lastModified = response.headers().firstValue("Last-Modified").orElse(null);
+        fresh.bodyHash = hash;
+        fresh.checkedAt = System.currentTimeMillis();
+        write(fresh);
+        return fresh;
+    }
+
+    private Snapshot touch(Snapshot known)
+    {
+        known.checkedAt = System.currentTimeMillis();
+        write(known);
+        return known;
+    }
+
+    private static List<NewsItem> parse(String body)
+    {
+        List<NewsItem> news = new ArrayList<>();
+        Document doc = Jsoup.parse(body, NEWS_URL);
+
+        for (Element wrapper : doc.select(".postWrapper"))
+        {
+            if (news.size() >= MAX_ITEMS) break;
+
+            Element postLink = wrapper.selectFirst("a.post");
+            if (postLink == null) continue;
+
+            String title = getSafeText(wrapper, "h4.post__details__heading", "No Title");
+
+            Element bodyEl = wrapper.selectFirst("span.post__details__body");
+            String rawDesc = "";
+
+            if (bodyEl != null) {
+                rawDesc = bodyEl.html()
+                        .replaceAll("(?i)<br\\s*/?>", "\n")
+                        .replaceAll("<[^>]+>", "")
+                        .trim();
+            }
+
+            String desc = rawDesc.length() > 120 ? rawDesc.substring(0, 120) + "..." : rawDesc;
+
+            String meta = getSafeText(wrapper, "span.post__details__meta", "");
+
+            String date = "Unknown date";
+            Matcher m = DATE.matcher(meta);
+            if (m.find()) {
+                date = m.group();
+            }
+
+            String url = postLink.absUrl("href");
+
+            String imgUrl = "";
+            Element img = wrapper.selectFirst("span.post__image img");
+            if (img != null) {
+                imgUrl = img.absUrl("src");
+            }
+
+            news.add(new NewsItem(title, date, desc, url, imgUrl));
+        }
+
+        return news;
+    }
+
+    private static String getSafeText(Element parent, String selector, String fallback)
+    {
+        Element el = parent.selectFirst(selector);
+        return (el != null) ? el.text() : fallback;
+    }
+
+    private static List<NewsItem> unavailable()
+    {
+        return List.of(new NewsItem(
+                "News unavailable",
+                LocalDate.now().format(DateTimeFormatter.ofPattern("dd.MM.yyyy")),
+                "Failed to load news. You may not have an internet connection.",
+                NEWS_URL,
+                ""
+        ));
+    }
+
+    private Snapshot read()
+    {
+        if (!Files.exists(file)) return null;
+
+        try {
+            Snapshot snapshot = gson.fromJson(Files.readString(file, StandardCharsets.UTF_8), Snapshot.class);
+            if (snapshot != null && snapshot.items != null && !snapshot.items.isEmpty()) return snapshot;
+        } catch (Exception e) {
+            System.err.println("Discarding unreadable news cache: " + e.getMessage());
+        }
+        return null;
+    }
+
+    private void write(Snapshot snapshot)
+    {
+        Path temp = file.resolveSibling(file.getFileName() + ".new");
+        try {
+            Files.createDirectories(file.getParent());
+            Files.writeString(temp, gson.toJson(snapshot), StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Failed to cache news: " + e.getMessage());
+        }
+    }
+
+    private static String hash(String body)
+    {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -12,6 +12,7 @@ import java.awt.event.MouseEvent;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class VersionSelectorDialog extends JDialog
 {
@@ -348,7 +349,7 @@ public class VersionSelectorDialog extends JDialog
 
     private void loadVersions()
     {
-        SwingWorker<Void, Void> worker = new SwingWorker<>() {
+        SwingWorker<Void, GameVersion> worker = new SwingWorker<>() {
             List<GameVersion> versions;
 
             @Override
@@ -358,10 +359,7 @@ public class VersionSelectorDialog extends JDialog
                 if (versions.isEmpty())
                 {
                     try {
-                        versions = versionManager.scanAvailableVersions(currentBranch,
-                                (percent, message) ->
-                                        SwingUtilities.invokeLater(() ->
-                                                statusLabel.setText(message + " (" + percent + "%)")));
+                        versions = versionManager.scanAvailableVersions(currentBranch, scanListener(this::publish));
                     } catch (Exception e) {
                         e.printStackTrace();
                     }
@@ -370,6 +368,11 @@ public class VersionSelectorDialog extends JDialog
                 return null;
             }
 
+            @Override
+            protected void process(List<GameVersion> found) {
+                found.forEach(VersionSelectorDialog.this::showVersion);
+            }
+
             @Override
             protected void done()
             {
@@ -401,16 +404,13 @@ public class VersionSelectorDialog extends JDialog
         branchSelector.setEnabled(false);
         statusLabel.setText("Updating versions list...");
 
-        SwingWorker<Void, Void> worker = new SwingWorker<>() {
+        SwingWorker<Void, GameVersion> worker = new SwingWorker<>() {
             List<GameVersion> versions;
 
             @Override
             protected Void doInBackground() {
                 try {
-                    versions = versionManager.scanAvailableVersions(currentBranch,
-                            (percent, message) ->
-                                    SwingUtilities.invokeLater(() ->
-                                            statusLabel.setText(message + " (" + percent + "%)")));
+                    versions = versionManager.scanAvailableVersions(currentBranch, scanListener(this::publish));
                 } catch (Exception e) {
                     e.printStackTrace();
                     versions = versionManager.loadCachedVersions(currentBranch);
@@ -418,6 +418,11 @@ public class VersionSelectorDialog extends JDialog
                 return null;
             }
 
+            @Override
+            protected void process(List<GameVersion> found) {
+                found.forEach(VersionSelectorDialog.this::showVersion);
+            }
+
             @Override
             protected void done() {
                 displayVersions(versions);
@@ -429,28 +434,77 @@ public class VersionSelectorDialog extends JDialog
         worker.execute();
     }
 
-    private void displayVersions(List<GameVersion> versions)
+    private VersionManager.ProgressListener scanListener(Consumer<GameVersion> publish)
     {
-        listModel.clear();
+        return new VersionManager.ProgressListener()
+        {
+            @Override
+            public void onProgress(int percent, String message) {
+                SwingUtilities.invokeLater(() -> statusLabel.setText(message + " (" + percent + "%)"));
+            }
 
-        for (GameVersion version : versions)
+            @Override
+            public void onVersion(GameVersion version) {
+                publish.accept(version);
+            }
+        };
+    }
+
+    // Keeps the list sorted newest first while scan results arrive in whatever order they resolve.
+    private void showVersion(GameVersion version)
+    {
+        if (!version.getBranch().equals(currentBranch)) return;
+
+        GameVersion displayVersion = toDisplayVersion(version);
+        GameVersion selected = versionList.getSelectedValue();
+
+        for (int i = 0; i < listModel.getSize(); i++)
         {
-            boolean actuallyInstalled = versionManager.isVersionInstalled(
-                    version.getPatchNumber(),
-                    version.getBranch()
-            );
+            GameVersion existing = listModel.getElementAt(i);
 
-            GameVersion displayVersion = new GameVersion(
-                    version.getName(),
-                    version.getFileName(),
-                    version.getDownloadUrl(),
-                    version.getPatchNumber(),
-                    version.getSize(),
-                    actuallyInstalled,
-                    version.getBranch()
-            );
+            if (existing.equals(displayVersion))
+            {
+                listModel.set(i, displayVersion);
+                return;
+            }
+
+            if (existing.getPatchNumber() < displayVersion.getPatchNumber())
+            {
+                listModel.add(i, displayVersion);
+                if (selected != null) {
+                    versionList.setSelectedValue(selected, false);
+                }
+                return;
+            }
+        }
+
+        listModel.addElement(displayVersion);
+    }
+
+    private GameVersion toDisplayVersion(GameVersion version)
+    {
+        boolean actuallyInstalled = versionManager.isVersionInstalled(
+                version.getPatchNumber(),
+                version.getBranch()
+        );
+
+        return new GameVersion(
+                version.getName(),
+                version.getFileName(),
+                version.getDownloadUrl(),
+                version.getPatchNumber(),
+                version.getSize(),
+                actuallyInstalled,
+                version.getBranch()
+        );
+    }
+
+    private void displayVersions(List<GameVersion> versions)
+    {
+        listModel.clear();
 
-            listModel.addElement(displayVersion);
+        for (GameVersion version : versions) {
+            listModel.addElement(toDisplayVersion(version));
         }
 
         String branchName = currentBranch.equals("pre-release") ? "pre-release" : "release";
@@ -0,0 +1,104 @@
+package com.linghy.mods;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Turns filesystem events in the mods folder into index refreshes. Events are collected until the
+// folder has been quiet for a moment, so a jar that is still being copied is only read once.
+class ModFolderWatcher implements AutoCloseable
+{
+    private static final long DEBOUNCE_MS = 300;
+
+    private final Path modsDir;
+    private final WatchService service;
+    private final Thread thread;
+    private final Consumer<Set<String>> onChanged;
+    private final Runnable onOverflow;
+
+    ModFolderWatcher(Path modsDir, Consumer<Set<String>> onChanged, Runnable onOverflow) throws IOException
+    {
+        this.modsDir = modsDir;
+        this.onChanged = onChanged;
+        this.onOverflow = onOverflow;
+        this.service = modsDir.getFileSystem().newWatchService();
+
+        modsDir.register(service,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+
+        thread = new Thread(this::run, "linghy-mods-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void run()
+    {
+        Set<String> pending = new HashSet<>();
+        boolean overflow = false;
+
+        try {
+            while (true)
+            {
+                WatchKey key = pending.isEmpty() && !overflow
+                        ? service.take()
+                        : service.poll(DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+
+                if (key == null)
+                {
+                    if (overflow) {
+                        onOverflow.run();
+                    } else {
+                        onChanged.accept(Set.copyOf(pending));
+                    }
+                    pending.clear();
+                    overflow = false;
+                    continue;
+                }
+
+                for (WatchEvent<?> event : key.pollEvents())
+                {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW)
+                    {
+                        overflow = true;
+                        continue;
+                    }
+
+                    String name = event.context().toString();
+                    if (name.endsWith(ModManager.PART_SUFFIX)) continue;
+                    if (name.endsWith(".cfmeta")) {
+                        name = name.substring(0, name.length() - ".cfmeta".length());
+                    }
+                    if (name.endsWith(".jar")) {
+                        pending.add(name);
+                    }
+                }
+
+                if (!key.reset())
+                {
+                    System.err.println("Mods folder no longer watchable: " + modsDir);
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed
+        } catch (RuntimeException e) {
+            System.err.println("Mods folder watcher stopped: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        try {
+            service.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close mods watcher: " + e.getMessage());
+        }
+        thread.interrupt();
+    }
+}
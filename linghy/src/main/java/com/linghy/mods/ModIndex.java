@@ -0,0 +1,216 @@
+package com.linghy.mods;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.function.Function;
+
+// Installed mods as of the last scan, persisted across runs. A jar is only reopened when its
+// (size, mtime, file key) or its .cfmeta sidecar changed; everything else is served from the index.
+class ModIndex
+{
+    private static class Entry
+    {
+        long size;
+        long modified;
+        String fingerprint;
+        long metaModified;
+        ModManager.InstalledMod mod;
+
+        boolean matches(Entry other)
+        {
+            return size == other.size && modified == other.modified
+                    && Objects.equals(fingerprint, other.fingerprint) && metaModified == other.metaModified;
+        }
+    }
+
+    // A jar that appeared or changed carries its new info; a removed one only its file name.
+    static class Change
+    {
+        final String fileName;
+        final ModManager.InstalledMod mod;
+
+        Change(String fileName, ModManager.InstalledMod mod)
+        {
+            this.fileName = fileName;
+            this.mod = mod;
+        }
+    }
+
+    private final Gson gson = new Gson();
+    private final Path indexFile;
+    private Map<String, Entry> entries;
+
+    ModIndex(Path indexFile) {
+        this.indexFile = indexFile;
+    }
+
+    synchronized List<ModManager.InstalledMod> scan(Path modsDir, Function<Path, ModManager.InstalledMod> loader)
+    {
+        if (entries == null) entries = load();
+
+        Map<String, BasicFileAttributes> listing = list(modsDir);
+        if (listing == null) return List.of();
+
+        Map<String, Entry> current = new LinkedHashMap<>();
+        List<Path> changed = new ArrayList<>();
+
+        for (Map.Entry<String, BasicFileAttributes> file : listing.entrySet())
+        {
+            String name = file.getKey();
+            // Downloads in progress end in ModManager.PART_SUFFIX and only show up once moved into place.
+            if (!name.endsWith(".jar") || !file.getValue().isRegularFile()) continue;
+
+            Entry stamp = stamp(file.getValue(), listing.get(name + ".cfmeta"));
+            Entry known = entries.get(name);
+
+            if (known != null && known.matches(stamp))
+            {
+                current.put(name, known);
+            }
+            else
+            {
+                current.put(name, stamp);
+                changed.add(modsDir.resolve(name));
+            }
+        }
+
+        // Opening a jar and parsing its manifest is the expensive part, so changed jars are read across cores.
+        changed.parallelStream().forEach(jar ->
+        {
+            Entry entry = current.get(jar.getFileName().toString());
+            entry.mod = loader.apply(jar);
+        });
+
+        boolean dirty = !changed.isEmpty() || !current.keySet().equals(entries.keySet());
+        entries = current;
+        if (dirty) save();
+
+        List<ModManager.InstalledMod> mods = new ArrayList<>();
+        for (Entry entry : current.values()) {
+            if (entry.mod != null) mods.add(entry.mod);
+        }
+        return mods;
+    }
+
+    // Re-checks only the named jars, for a watcher that already knows what moved.
+    synchronized List<Change> refresh(Path modsDir, Collection<String> fileNames,
+                                      Function<Path, ModManager.InstalledMod> loader)
+    {
+        if (entries == null) entries = load();
+
+        List<Change> changes = new ArrayList<>();
+        for (String name : fileNames)
+        {
+            Path jar = modsDir.resolve(name);
+            Entry stamp = stamp(jar);
+            Entry known = entries.get(name);
+
+            if (stamp == null)
+            {
+                entries.remove(name);
+                changes.add(new Change(name, null));
+                continue;
+            }
+            if (known != null && known.matches(stamp)) continue;
+
+            stamp.mod = loader.apply(jar);
+            entries.put(name, stamp);
+            changes.add(new Change(name, stamp.mod));
+        }
+
+        if (!changes.isEmpty()) save();
+        return changes;
+    }
+
+    synchronized Set<String> knownFileNames()
+    {
+        if (entries == null) entries = load();
+        return new HashSet<>(entries.keySet());
+    }
+
+    synchronized void invalidate(String fileName) {
+        if (entries != null) entries.remove(fileName);
+    }
+
+    // One pass over the folder collects the attributes of jars and their sidecars alike.
+    private static Map<String, BasicFileAttributes> list(Path modsDir)
+    {
+        Map<String, BasicFileAttributes> listing = new TreeMap<>();
+        try {
+            Files.walkFileTree(modsDir, EnumSet.noneOf(FileVisitOption.class), 1, new SimpleFileVisitor<>()
+            {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    listing.put(file.getFileName().toString(), attrs);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            return listing;
+        } catch (IOException e) {
+            System.err.println("Failed to list installed mods: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static Entry stamp(Path jar)
+    {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(jar, BasicFileAttributes.class);
+            if (!attrs.isRegularFile()) return null;
+
+            Path meta = jar.resolveSibling(jar.getFileName() + ".cfmeta");
+            BasicFileAttributes metaAttrs = Files.exists(meta)
+                    ? Files.readAttributes(meta, BasicFileAttributes.class) : null;
+            return stamp(attrs, metaAttrs);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static Entry stamp(BasicFileAttributes jar, BasicFileAttributes meta)
+    {
+        Entry entry = new Entry();
+        entry.size = jar.size();
+        entry.modified = jar.lastModifiedTime().toMillis();
+        entry.fingerprint = jar.fileKey() != null ? jar.fileKey().toString() : null;
+        entry.metaModified = meta != null ? meta.lastModifiedTime().toMillis() : -1;
+        return entry;
+    }
+
+    private Map<String, Entry> load()
+    {
+        if (!Files.exists(indexFile)) return new HashMap<>();
+
+        try {
+            Map<String, Entry> saved = gson.fromJson(Files.readString(indexFile, StandardCharsets.UTF_8),
+                    new TypeToken<Map<String, Entry>>() {}.getType());
+            if (saved != null) return saved;
+        } catch (Exception e) {
+            System.err.println("Mod index unreadable, rebuilding: " + e.getMessage());
+        }
+        return new HashMap<>();
+    }
+
+    private void save()
+    {
+        Path temp = indexFile.resolveSibling(indexFile.getFileName() + ".new");
+        try {
+            Files.createDirectories(indexFile.getParent());
+            Files.writeString(temp, gson.toJson(entries), StandardCharsets.UTF_8);
+            Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Failed to save mod index: " + e.getMessage());
+        }
+    }
+}
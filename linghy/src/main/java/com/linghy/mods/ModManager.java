@@ -4,31 +4,39 @@ import com.google.gson.Gson;
 import com.linghy.env.Environment;
 import com.linghy.mods.curseforge.CurseForgeAPI;
 import com.linghy.mods.manifest.ModManifest;
+import com.linghy.net.Checksum;
+import com.linghy.net.DigestingChannel;
+import com.linghy.net.Http;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.file.*;
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
 public class ModManager
 {
+    // Suffix of a mod jar still being downloaded.
+    static final String PART_SUFFIX = ".part";
+
     private final Gson gson;
     private final Path modsDir;
-    private final Map<String, ModManifest> manifestCache;
+    private final ModIndex index;
+    private ModFolderWatcher watcher;
 
     public ModManager()
     {
         this.gson = new Gson();
-        this.manifestCache = new ConcurrentHashMap<>();
+        this.index = new ModIndex(Environment.getDefaultAppDir().resolve("cache").resolve("mod-index.json"));
 
         this.modsDir = Environment.getDefaultAppDir()
                 .resolve("UserData")
@@ -46,36 +54,38 @@ public class ModManager
         return CompletableFuture.supplyAsync(() -> getInstalledMods());
     }
 
-    public List<InstalledMod> getInstalledMods()
+    public List<InstalledMod> getInstalledMods() {
+        return index.scan(modsDir, this::loadModInfo);
+    }
+
+    // Listener calls come from the watcher thread. Returns false if the folder cannot be watched.
+    public synchronized boolean startWatching(ModChangeListener listener)
     {
-        List<InstalledMod> mods = new ArrayList<>();
+        stopWatching();
 
-        try (DirectoryStream<Path> stream = Files.newDirectoryStream(modsDir, "*.jar"))
-        {
-            for (Path modFile : stream)
-            {
-                InstalledMod mod = loadModInfo(modFile);
+        try {
+            watcher = new ModFolderWatcher(modsDir,
+                    names -> index.refresh(modsDir, names, this::loadModInfo)
+                            .forEach(change -> listener.onModChanged(change.fileName, change.mod)),
+                    () -> listener.onModsReloaded(getInstalledMods()));
+            return true;
+        } catch (IOException e) {
+            System.err.println("Cannot watch mods folder, changes need a manual refresh: " + e.getMessage());
+            return false;
+        }
+    }
 
-                if (mod != null) {
-                    mods.add(mod);
-                }
-            }
-        } catch (IOException e)
+    public synchronized void stopWatching()
+    {
+        if (watcher != null)
         {
-            System.err.println("Failed to list installed mods: " + e.getMessage());
+            watcher.close();
+            watcher = null;
         }
-
-        return mods;
     }
 
     private ModManifest readManifest(Path jar)
     {
-        String jarPath = jar.toString();
-
-        if (manifestCache.containsKey(jarPath)) {
-            return manifestCache.get(jarPath);
-        }
-
         try (ZipFile zip = new ZipFile(jar.toFile()))
         {
             ZipEntry entry = zip.getEntry("manifest.json");
@@ -84,9 +94,7 @@ public class ModManager
             try (InputStream is = zip.getInputStream(entry))
             {
                 String json = new String(is.readAllBytes());
-                ModManifest manifest = gson.fromJson(json, ModManifest.class);
-                manifestCache.put(jarPath, manifest);
-                return manifest;
+                return gson.fromJson(json, ModManifest.class);
             }
         } catch (Exception e)
         {
@@ -176,11 +184,14 @@ public class ModManager
     {
         String fileName = file.fileName;
         Path outPath = modsDir.resolve(fileName);
+        // Written under a name the watcher and index ignore, and only moved into place once verified.
+        Path partPath = modsDir.resolve(fileName + PART_SUFFIX);
 
         if (listener != null) {
             listener.onProgress(0, "Starting...");
         }
 
+        Checksum checksum = file.checksum();
         int maxRetries = 3;
         IOException lastException = null;
 
@@ -196,53 +207,42 @@ public class ModManager
                     Thread.sleep(2000 * attempt);
                 }
 
-                URL url = new URL(file.downloadUrl);
-                HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-                connection.setRequestProperty("User-Agent", "Mozilla/5.0");
-                connection.setInstanceFollowRedirects(true);
-                connection.setConnectTimeout(60000);
-                connection.setReadTimeout(60000);
-
-                int responseCode = connection.getResponseCode();
+                HttpRequest request = Http.request(file.downloadUrl)
+                        .setHeader("User-Agent", "Mozilla/5.0")
+                        .timeout(Duration.ofSeconds(60))
+                        .GET()
+                        .build();
 
-                int redirectCount = 0;
-                while ((responseCode == 301 || responseCode == 302 || responseCode == 303) && redirectCount < 5)
-                {
-                    String newUrl = connection.getHeaderField("Location");
-                    connection.disconnect();
-                    connection = (HttpURLConnection) new URL(newUrl).openConnection();
-                    connection.setRequestProperty("User-Agent", "Mozilla/5.0");
-                    connection.setInstanceFollowRedirects(true);
-                    connection.setConnectTimeout(60000);
-                    connection.setReadTimeout(60000);
-                    responseCode = connection.getResponseCode();
-                    redirectCount++;
-                }
+                HttpResponse<InputStream> response = Http.send(request, HttpResponse.BodyHandlers.ofInputStream());
+                int responseCode = response.statusCode();
 
                 if (responseCode != 200)
                 {
+                    response.body().close();
                     throw new IOException("HTTP " + responseCode);
                 }
 
-                long contentLength = connection.getContentLengthLong();
+                long contentLength = response.headers().firstValueAsLong("Content-Length").orElse(-1);
 
-                try (ReadableByteChannel rbc = Channels.newChannel(connection.getInputStream());
-                     FileChannel fc = FileChannel.open(outPath,
+                try (ReadableByteChannel rbc = Channels.newChannel(response.body());
+                     FileChannel fc = FileChannel.open(partPath,
                              StandardOpenOption.CREATE,
                              StandardOpenOption.WRITE,
                              StandardOpenOption.TRUNCATE_EXISTING))
                 {
+                    DigestingChannel sink = new DigestingChannel(fc, checksum != null ? checksum.newDigest() : null);
+                    ByteBuffer buffer = ByteBuffer.allocateDirect(1024 * 1024);
                     long totalRead = 0;
                     long startTime = System.currentTimeMillis();
                     long lastUpdate = startTime;
-                    long chunkSize = 1024 * 1024;
 
                     while (totalRead < contentLength || contentLength <= 0)
                     {
-                        long transferred = fc.transferFrom(rbc, totalRead, chunkSize);
-                        if (transferred <= 0) break;
+                        buffer.clear();
+                        if (rbc.read(buffer) < 0) break;
 
-                        totalRead += transferred;
+                        buffer.flip();
+                        totalRead += sink.write(buffer, totalRead);
 
                         long now = System.currentTimeMillis();
                         if (listener != null && (now - lastUpdate > 16))
@@ -260,22 +260,31 @@ public class ModManager
                     {
                         throw new IOException("Incomplete");
                     }
-                }
 
-                connection.disconnect();
-
-                if (listener != null) {
-                    listener.onProgress(100, "Done");
+                    if (checksum != null) {
+                        checksum.verify(sink.finish(totalRead), outPath);
+                    }
                 }
 
+                // Before the move, so the watcher and index never see the jar without it. The jar is
+                // verified at this point; a missing sidecar only loses the CurseForge link, so it is no reason to retry.
                 if (curseForgeId > 0)
                 {
                     Path metaFile = outPath.resolveSibling(fileName + ".cfmeta");
-                    String metaJson = gson.toJson(new ModMetadata(curseForgeId, file.id, iconUrl));
-                    Files.writeString(metaFile, metaJson);
+                    try {
+                        Files.writeString(metaFile, gson.toJson(new ModMetadata(curseForgeId, file.id, iconUrl)));
+                    } catch (IOException e) {
+                        System.err.println("Could not write " + metaFile + ": " + e.getMessage());
+                    }
                 }
 
-                manifestCache.remove(outPath.toString());
+                Files.move(partPath, outPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+                if (listener != null) {
+                    listener.onProgress(100, "Done");
+                }
+
+                index.invalidate(fileName);
                 return;
 
             } catch (IOException e)
@@ -283,7 +292,7 @@ public class ModManager
                 lastException = e;
 
                 try {
-                    Files.deleteIfExists(outPath);
+                    Files.deleteIfExists(partPath);
                 } catch (IOException ex) {}
 
                 if (attempt == maxRetries) break;
@@ -317,7 +326,7 @@ public class ModManager
         Path modFile = modsDir.resolve(modFileName);
         Path metaFile = modFile.resolveSibling(modFileName + ".cfmeta");
 
-        manifestCache.remove(modFile.toString());
+        index.invalidate(modFileName);
 
         Files.deleteIfExists(modFile);
         Files.deleteIfExists(metaFile);
@@ -354,6 +363,14 @@ public class ModManager
         }
     }
 
+    public interface ModChangeListener
+    {
+        // mod is null when the jar was removed
+        void onModChanged(String fileName, InstalledMod mod);
+
+        void onModsReloaded(List<InstalledMod> mods);
+    }
+
     public interface ModProgressListener {
         void onProgress(double percent, String message);
     }
@@ -1,13 +1,15 @@
 package com.linghy.mods;
 
+import com.linghy.image.ImageService;
 import com.linghy.mods.curseforge.CurseForgeAPI;
+import com.linghy.mods.curseforge.SearchCursor;
 
 import javax.swing.*;
-import javax.swing.Timer;
 import javax.swing.border.EmptyBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.awt.event.*;
-import java.net.URL;
 import java.util.*;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
@@ -37,6 +39,23 @@ public class ModManagerDialog extends JDialog
     private JProgressBar cfProgressBar;
     private volatile boolean isSearching = false;
     private boolean hasLoadedPopularMods = false;
+    private int searchGeneration = 0;
+    private SearchCursor searchCursor;
+    private String searchKey;
+    private boolean loadingPage = false;
+    private javax.swing.Timer searchDebounce;
+
+    // Typing pauses this long before the query goes out, so only the settled text is searched.
+    private static final int SEARCH_DEBOUNCE_MS = 300;
+
+    // Rows left below the viewport when the next page is requested, and when it is appended.
+    private static final int PREFETCH_ROWS = 20;
+    private static final int APPEND_ROWS = 5;
+
+    // Everything in the mods folder; installedModel shows the part matching installedFilter.
+    private final List<ModManager.InstalledMod> installedMods = new ArrayList<>();
+    private String installedFilter = "";
+    private boolean watchingMods;
 
     public ModManagerDialog(Frame parent)
     {
@@ -47,9 +66,23 @@ public class ModManagerDialog extends JDialog
         setSize(1100, 700);
         setLocationRelativeTo(parent);
         setUndecorated(true);
+        // Every way of closing goes through dispose(), which stops the folder watcher.
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
 
         initComponents();
         loadInstalledMods();
+        watchingMods = modManager.startWatching(new ModManager.ModChangeListener()
+        {
+            @Override
+            public void onModChanged(String fileName, ModManager.InstalledMod mod) {
+                SwingUtilities.invokeLater(() -> applyModChange(fileName, mod));
+            }
+
+            @Override
+            public void onModsReloaded(List<ModManager.InstalledMod> mods) {
+                SwingUtilities.invokeLater(() -> showInstalledMods(mods));
+            }
+        });
 
         tabbedPane.addChangeListener(e ->
         {
@@ -106,7 +139,27 @@ public class ModManagerDialog extends JDialog
                 BorderFactory.createLineBorder(new Color(255, 168, 69, 60), 1),
                 new EmptyBorder(10, 15, 10, 15)
         ));
-        cfSearchField.setToolTipText("Search mods on CurseForge (press Enter or click Search)");
+        cfSearchField.setToolTipText("Search mods on CurseForge as you type");
+
+        searchDebounce = new javax.swing.Timer(SEARCH_DEBOUNCE_MS, e -> searchIfChanged());
+        searchDebounce.setRepeats(false);
+
+        cfSearchField.getDocument().addDocumentListener(new DocumentListener()
+        {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                searchDebounce.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                searchDebounce.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+            }
+        });
 
         JButton searchButton = createStyledButton("Search");
         searchButton.setBackground(new Color(255, 168, 69, 180));
@@ -145,19 +198,16 @@ public class ModManagerDialog extends JDialog
 
         cfSortCombo.addActionListener(e ->
         {
-            if (!isSearching)
-            {
-                String query = cfSearchField.getText().trim();
+            String query = cfSearchField.getText().trim();
 
-                if (query.isEmpty())
-                {
-                    hasLoadedPopularMods = false;
-                    loadPopularMods();
-                }
-                else if (!cfModel.isEmpty())
-                {
-                    performSearch();
-                }
+            if (query.isEmpty())
+            {
+                hasLoadedPopularMods = false;
+                loadPopularMods();
+            }
+            else
+            {
+                performSearch();
             }
         });
 
@@ -200,6 +250,7 @@ public class ModManagerDialog extends JDialog
         scrollPane.setBorder(BorderFactory.createLineBorder(new Color(255, 168, 69, 60), 1));
         scrollPane.getViewport().setBackground(new Color(26, 26, 32));
         customizeScrollBar(scrollPane);
+        scrollPane.getVerticalScrollBar().addAdjustmentListener(e -> loadMoreIfNearEnd());
 
         panel.add(scrollPane, BorderLayout.CENTER);
 
@@ -252,13 +303,21 @@ public class ModManagerDialog extends JDialog
         return panel;
     }
 
-    private void performSearch()
+    // Called by the debounce timer; Enter and the Search button always search again.
+    private void searchIfChanged()
     {
         String query = cfSearchField.getText().trim();
-
-        if (isSearching) {
-            return;
+        if (!searchKeyFor(query, getSortFieldFromCombo()).equals(searchKey)) {
+            performSearch();
         }
+    }
+
+    // A newer query supersedes whatever is still loading: the old cursor cancels its requests
+    // and its results are dropped on arrival.
+    private void performSearch()
+    {
+        searchDebounce.stop();
+        String query = cfSearchField.getText().trim();
 
         isSearching = true;
         cfModel.clear();
@@ -267,57 +326,141 @@ public class ModManagerDialog extends JDialog
 
         String displayQuery = query.isEmpty() ? "popular mods" : query;
         cfStatusLabel.setText("Searching for: " + displayQuery + "...");
-        cfSearchField.setEnabled(false);
-        cfSortCombo.setEnabled(false);
 
         CurseForgeAPI.SortField sortField = getSortFieldFromCombo();
         CurseForgeAPI.SortOrder sortOrder = CurseForgeAPI.SortOrder.DESCENDING;
+        SearchCursor cursor = startCursor(query, sortField, sortOrder);
 
-        CompletableFuture.supplyAsync(() ->
+        cursor.next().whenComplete((mods, ex) -> SwingUtilities.invokeLater(() ->
         {
-            try
-            {
-                return CurseForgeAPI.searchMods(query, sortField, sortOrder);
-            }
-            catch (Exception ex)
-            {
-                SwingUtilities.invokeLater(() -> {
-                    cfStatusLabel.setText("Search failed: " + ex.getMessage());
-                });
+            if (cursor != searchCursor) return;
+            isSearching = false;
+            cfProgressBar.setVisible(false);
 
-                return new ArrayList<CurseForgeAPI.Mod>();
+            if (ex != null)
+            {
+                searchKey = null;
+                cfStatusLabel.setText("Search failed: " + causeMessage(ex));
             }
-        }).thenAccept(mods -> SwingUtilities.invokeLater(() ->
-        {
-            if (!mods.isEmpty())
+            else if (!mods.isEmpty())
             {
                 for (CurseForgeAPI.Mod mod : mods) {
                     cfModel.addElement(mod);
                 }
 
-                String sortDesc = (String) cfSortCombo.getSelectedItem();
-
-                if (query.isEmpty())
-                {
-                    cfStatusLabel.setText("Showing " + mods.size() + " popular mods (sorted by " + sortDesc + ")");
-                }
-                else
-                {
-                    cfStatusLabel.setText("Found " + mods.size() + " mods (sorted by " + sortDesc + ")");
-                }
+                updateSearchStatus(query);
             }
             else
             {
                 cfStatusLabel.setText("No mods found for: " + displayQuery);
             }
+        }));
+    }
 
-            isSearching = false;
+    // A new query or sort order abandons the previous cursor, along with any page it still has in flight.
+    private SearchCursor startCursor(String query, CurseForgeAPI.SortField sortField, CurseForgeAPI.SortOrder sortOrder)
+    {
+        if (searchCursor != null) {
+            searchCursor.cancel();
+        }
+
+        int generation = ++searchGeneration;
+        searchKey = searchKeyFor(query, sortField);
+        loadingPage = false;
+        searchCursor = new SearchCursor(query, sortField, sortOrder,
+                fresh -> showRefreshedResults(generation, fresh));
+        return searchCursor;
+    }
+
+    private static String searchKeyFor(String query, CurseForgeAPI.SortField sortField) {
+        return sortField + "|" + query;
+    }
+
+    private void loadMoreIfNearEnd()
+    {
+        SearchCursor cursor = searchCursor;
+        if (cursor == null || isSearching || loadingPage || !cursor.hasMore()) return;
+
+        int last = cfList.getLastVisibleIndex();
+        if (last < 0) return;
 
-            cfSearchField.setEnabled(true);
-            cfSortCombo.setEnabled(true);
+        int remaining = cfModel.size() - 1 - last;
+        if (remaining < PREFETCH_ROWS) {
+            cursor.prefetch();
+        }
+        if (remaining >= APPEND_ROWS) return;
+
+        loadingPage = true;
+        String query = cfSearchField.getText().trim();
+        cursor.next().whenComplete((mods, ex) -> SwingUtilities.invokeLater(() ->
+        {
+            if (cursor != searchCursor) return;
+            loadingPage = false;
+
+            if (ex != null)
+            {
+                if (!(ex.getCause() instanceof java.util.concurrent.CancellationException)) {
+                    cfStatusLabel.setText("Failed to load more mods: " + causeMessage(ex));
+                }
+                return;
+            }
+
+            for (CurseForgeAPI.Mod mod : mods) {
+                cfModel.addElement(mod);
+            }
+            updateSearchStatus(query);
+            loadMoreIfNearEnd();
         }));
     }
 
+    private void updateSearchStatus(String query)
+    {
+        String sortDesc = (String) cfSortCombo.getSelectedItem();
+        int total = searchCursor != null ? searchCursor.getTotalCount() : -1;
+        String shown = total > cfModel.size()
+                ? cfModel.size() + " of " + total
+                : String.valueOf(cfModel.size());
+
+        if (query.isEmpty())
+        {
+            cfStatusLabel.setText("Showing " + shown + " popular mods (sorted by " + sortDesc + ")");
+        }
+        else
+        {
+            cfStatusLabel.setText("Found " + shown + " mods (sorted by " + sortDesc + ")");
+        }
+    }
+
+    private static String causeMessage(Throwable ex)
+    {
+        Throwable cause = ex;
+        while (cause.getCause() != null && cause instanceof java.util.concurrent.CompletionException) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage();
+    }
+
+    // Cached results are shown first; this swaps in the server's newer list if the user is still looking at it.
+    private void showRefreshedResults(int generation, List<CurseForgeAPI.Mod> mods)
+    {
+        SwingUtilities.invokeLater(() ->
+        {
+            // Once further pages were appended the first page is left alone; the list would jump otherwise.
+            if (generation != searchGeneration || isSearching || mods.isEmpty()
+                    || cfModel.size() > mods.size()) return;
+
+            CurseForgeAPI.Mod selected = cfList.getSelectedValue();
+            cfModel.clear();
+            for (CurseForgeAPI.Mod mod : mods)
+            {
+                cfModel.addElement(mod);
+                if (selected != null && mod.id == selected.id) {
+                    cfList.setSelectedValue(mod, false);
+                }
+            }
+        });
+    }
+
     private CurseForgeAPI.SortField getSortFieldFromCombo()
     {
         String sortBy = (String) cfSortCombo.getSelectedItem();
@@ -339,10 +482,11 @@ public class ModManagerDialog extends JDialog
 
     private void loadPopularMods()
     {
-        if (isSearching || hasLoadedPopularMods) {
+        if (hasLoadedPopularMods) {
             return;
         }
 
+        searchDebounce.stop();
         hasLoadedPopularMods = true;
         isSearching = true;
         cfModel.clear();
@@ -351,51 +495,36 @@ public class ModManagerDialog extends JDialog
 
         cfStatusLabel.setText("Loading popular mods...");
 
-        cfSearchField.setEnabled(false);
-        cfSortCombo.setEnabled(false);
         cfProgressBar.setVisible(true);
         cfProgressBar.setIndeterminate(true);
 
         CurseForgeAPI.SortField sortField = getSortFieldFromCombo();
         CurseForgeAPI.SortOrder sortOrder = CurseForgeAPI.SortOrder.DESCENDING;
+        SearchCursor cursor = startCursor("", sortField, sortOrder);
 
-        CompletableFuture.supplyAsync(() ->
-        {
-            try
-            {
-                return CurseForgeAPI.searchMods("", sortField, sortOrder);
-            }
-            catch (Exception ex)
-            {
-                SwingUtilities.invokeLater(() ->
-                {
-                    cfStatusLabel.setText("Failed to load popular mods: " + ex.getMessage());
-                    cfProgressBar.setVisible(false);
-                });
-
-                return new ArrayList<CurseForgeAPI.Mod>();
-            }
-        }).thenAccept(mods -> SwingUtilities.invokeLater(() ->
+        cursor.next().whenComplete((mods, ex) -> SwingUtilities.invokeLater(() ->
         {
+            if (cursor != searchCursor) return;
+            isSearching = false;
             cfProgressBar.setVisible(false);
 
-            if (!mods.isEmpty())
+            if (ex != null)
+            {
+                searchKey = null;
+                cfStatusLabel.setText("Failed to load popular mods: " + causeMessage(ex));
+            }
+            else if (!mods.isEmpty())
             {
                 for (CurseForgeAPI.Mod mod : mods) {
                     cfModel.addElement(mod);
                 }
 
-                String sortDesc = (String) cfSortCombo.getSelectedItem();
-                cfStatusLabel.setText("Showing " + mods.size() + " popular mods (sorted by " + sortDesc + ")");
+                updateSearchStatus("");
             }
             else
             {
                 cfStatusLabel.setText("Failed to load popular mods");
             }
-
-            isSearching = false;
-            cfSearchField.setEnabled(true);
-            cfSortCombo.setEnabled(true);
         }));
     }
 
@@ -533,7 +662,9 @@ public class ModManagerDialog extends JDialog
                     cfInfoButton.setEnabled(true);
                     cfStatusLabel.setText("Installed: " + mod.name);
 
-                    loadInstalledMods();
+                    if (!watchingMods) {
+                        loadInstalledMods();
+                    }
 
                     if (tabbedPane.getSelectedIndex() != 0)
                     {
@@ -873,21 +1004,8 @@ public class ModManagerDialog extends JDialog
             @Override
             public void keyReleased(KeyEvent e)
             {
-                String filter = installedSearch.getText().toLowerCase().trim();
-                installedModel.clear();
-
-                List<ModManager.InstalledMod> allMods = modManager.getInstalledMods();
-                for (ModManager.InstalledMod mod : allMods)
-                {
-                    if (filter.isEmpty() ||
-                            mod.name.toLowerCase().contains(filter) ||
-                            mod.author.toLowerCase().contains(filter))
-                    {
-                        installedModel.addElement(mod);
-                    }
-                }
-
-                statusLabel.setText("Showing " + installedModel.size() + " of " + allMods.size() + " mods");
+                installedFilter = installedSearch.getText().toLowerCase().trim();
+                showInstalledMods(new ArrayList<>(installedMods));
             }
         });
 
@@ -1022,34 +1140,7 @@ public class ModManagerDialog extends JDialog
         statusLabel.setText("Loading...");
 
         modManager.getInstalledModsAsync()
-                .thenAccept(mods -> SwingUtilities.invokeLater(() ->
-                {
-                    installedModel.clear();
-
-                    if (mods.isEmpty())
-                    {
-                        statusLabel.setText("No mods installed");
-                    }
-                    else
-                    {
-                        for (ModManager.InstalledMod mod : mods) {
-                            installedModel.addElement(mod);
-                        }
-
-                        statusLabel.setText(mods.size() + " mod(s)");
-
-                        installedList.revalidate();
-                        installedList.repaint();
-
-                        Timer repaintTimer = new Timer(300, e -> {
-                            installedList.repaint();
-                            ((Timer) e.getSource()).stop();
-                        });
-
-                        repaintTimer.setRepeats(false);
-                        repaintTimer.start();
-                    }
-                }))
+                .thenAccept(mods -> SwingUtilities.invokeLater(() -> showInstalledMods(mods)))
                 .exceptionally(ex ->
                 {
                     SwingUtilities.invokeLater(() -> {
@@ -1059,6 +1150,92 @@ public class ModManagerDialog extends JDialog
                 });
     }
 
+    private void showInstalledMods(List<ModManager.InstalledMod> mods)
+    {
+        installedMods.clear();
+        installedMods.addAll(mods);
+        installedMods.sort(Comparator.comparing(m -> m.id));
+
+        installedModel.clear();
+        for (ModManager.InstalledMod mod : installedMods)
+        {
+            if (matchesInstalledFilter(mod)) {
+                installedModel.addElement(mod);
+            }
+        }
+
+        updateInstalledStatus();
+    }
+
+    // A single jar appeared, changed or went away (mod == null); only its row is touched.
+    private void applyModChange(String fileName, ModManager.InstalledMod mod)
+    {
+        installedMods.removeIf(m -> m.id.equals(fileName));
+
+        int row = -1;
+        for (int i = 0; i < installedModel.size(); i++)
+        {
+            if (installedModel.get(i).id.equals(fileName))
+            {
+                row = i;
+                break;
+            }
+        }
+
+        if (mod == null || !matchesInstalledFilter(mod))
+        {
+            if (row >= 0) installedModel.remove(row);
+        }
+        else if (row >= 0)
+        {
+            installedModel.set(row, mod);
+        }
+        else
+        {
+            int at = 0;
+            while (at < installedModel.size() && installedModel.get(at).id.compareTo(fileName) < 0) at++;
+            installedModel.add(at, mod);
+        }
+
+        if (mod != null)
+        {
+            int at = 0;
+            while (at < installedMods.size() && installedMods.get(at).id.compareTo(fileName) < 0) at++;
+            installedMods.add(at, mod);
+        }
+
+        updateInstalledStatus();
+    }
+
+    private boolean matchesInstalledFilter(ModManager.InstalledMod mod)
+    {
+        return installedFilter.isEmpty() ||
+                mod.name.toLowerCase().contains(installedFilter) ||
+                mod.author.toLowerCase().contains(installedFilter);
+    }
+
+    private void updateInstalledStatus()
+    {
+        if (installedMods.isEmpty()) {
+            statusLabel.setText("No mods installed");
+        } else if (installedFilter.isEmpty()) {
+            statusLabel.setText(installedMods.size() + " mod(s)");
+        } else {
+            statusLabel.setText("Showing " + installedModel.size() + " of " + installedMods.size() + " mods");
+        }
+    }
+
+    @Override
+    public void dispose()
+    {
+        modManager.stopWatching();
+        searchDebounce.stop();
+        if (searchCursor != null) {
+            searchCursor.cancel();
+        }
+        super.dispose();
+    }
+
     private void deleteSelectedMods()
     {
         int[] selectedIndices = installedList.getSelectedIndices();
@@ -1093,7 +1270,9 @@ public class ModManagerDialog extends JDialog
                 }
             }
 
-            loadInstalledMods();
+            if (!watchingMods) {
+                loadInstalledMods();
+            }
 
             if (!failedDeletions.isEmpty())
             {
@@ -1119,25 +1298,18 @@ public class ModManagerDialog extends JDialog
         CompletableFuture.supplyAsync(() ->
         {
             List<ModManager.InstalledMod> mods = modManager.getInstalledMods();
-            List<String> updates = new ArrayList<>();
+            List<String> updates = Collections.synchronizedList(new ArrayList<>());
+            int[] checked = {0};
 
-            for (ModManager.InstalledMod mod : mods)
+            new ModUpdateChecker().check(mods, result ->
             {
-                if (mod.curseForgeId > 0 && mod.fileId > 0)
-                {
-                    try
-                    {
-                        CurseForgeAPI.ModFile latest = CurseForgeAPI.getLatestFile(mod.curseForgeId);
-                        if (latest != null && latest.id != mod.fileId) {
-                            updates.add(mod.name);
-                        }
-                    }
-                    catch (Exception e)
-                    {
-                        // ...
-                    }
+                if (result.isUpdateAvailable()) {
+                    updates.add(result.mod.name);
                 }
-            }
+
+                SwingUtilities.invokeLater(() -> statusLabel.setText("Checking for updates... "
+                        + (++checked[0]) + " checked, " + updates.size() + " update(s) found"));
+            });
 
             return updates;
         }).thenAccept(updates -> SwingUtilities.invokeLater(() ->
@@ -1208,127 +1380,113 @@ public class ModManagerDialog extends JDialog
         });
     }
 
-    private static class CurseForgeModRenderer extends DefaultListCellRenderer
+    // Renderer components are stamped onto the list, never shown live, so the layout and repaint
+    // requests a normal component makes on every setText are pure overhead here.
+    private static class CellPanel extends JPanel
     {
-        static final Map<Integer, ImageIcon> imageCache = new ConcurrentHashMap<>();
-        static final Map<String, ImageIcon> customIconCache = new ConcurrentHashMap<>();
-        private static final Map<Integer, Boolean> loadingImages = new ConcurrentHashMap<>();
+        CellPanel(LayoutManager layout) {
+            super(layout);
+        }
 
-        @Override
-        public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected, boolean cellHasFocus)
+        @Override public void revalidate() {}
+        @Override public void repaint() {}
+        @Override public void repaint(long tm, int x, int y, int width, int height) {}
+        @Override public void repaint(Rectangle r) {}
+    }
+
+    private static class CellLabel extends JLabel
+    {
+        CellLabel(Font font, Color color)
         {
-            if (!(value instanceof CurseForgeAPI.Mod mod)) {
-                return super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
-            }
+            setFont(font);
+            setForeground(color);
+        }
 
-            JPanel panel = new JPanel(new BorderLayout(10, 0));
-            panel.setOpaque(true);
+        @Override public void revalidate() {}
+        @Override public void repaint() {}
+        @Override public void repaint(long tm, int x, int y, int width, int height) {}
+        @Override public void repaint(Rectangle r) {}
+    }
 
-            panel.setBackground(isSelected
-                    ? new Color(255, 168, 69, 100)
-                    : new Color(26, 26, 32));
+    private static final Color ROW_BACKGROUND = new Color(26, 26, 32);
+    private static final Color ROW_SELECTED = new Color(255, 168, 69, 100);
+    private static final Color ACCENT = new Color(255, 168, 69);
+    private static final Color MUTED = new Color(153, 153, 153);
+    private static final Color DIM = new Color(102, 102, 102);
+    private static final Color PLACEHOLDER = new Color(255, 168, 69, 80);
+    private static final Color LOADING = new Color(255, 168, 69, 100);
+    private static final Color ENABLED = new Color(144, 238, 144);
+    private static final Color DISABLED = new Color(255, 107, 107);
+    private static final EmptyBorder ROW_BORDER = new EmptyBorder(10, 15, 10, 15);
+    private static final EmptyBorder TEXT_BORDER = new EmptyBorder(5, 0, 5, 0);
+
+    // One prepared component tree per list; each call only rebinds the data of the row being painted.
+    static class CurseForgeModRenderer implements ListCellRenderer<CurseForgeAPI.Mod>
+    {
+        // Lets the installed list reuse a thumbnail the browser already loaded for the same mod.
+        static final Map<Integer, String> thumbnailUrls = new ConcurrentHashMap<>();
 
-            panel.setBorder(new EmptyBorder(10, 15, 10, 15));
+        private static final Font NAME_FONT = new Font("Segoe UI", Font.BOLD, 15);
+        private static final Font AUTHOR_FONT = new Font("Segoe UI", Font.PLAIN, 11);
+        private static final Font INFO_FONT = new Font("Segoe UI", Font.PLAIN, 10);
+        private static final Font LOADING_FONT = new Font("Segoe UI", Font.PLAIN, 16);
+        private static final Font PLACEHOLDER_FONT = new Font("Segoe UI Emoji", Font.PLAIN, 40);
 
-            JPanel imagePanel = new JPanel(new BorderLayout());
-            imagePanel.setOpaque(false);
-            imagePanel.setPreferredSize(new Dimension(80, 80));
-            imagePanel.setMinimumSize(new Dimension(80, 80));
+        // Display strings derived from a result, computed once per Mod instead of once per paint.
+        private static class ModText
+        {
+            final String authors;
+            final String info;
 
-            if (mod.logo != null && mod.logo.thumbnailUrl != null)
+            ModText(CurseForgeAPI.Mod mod)
             {
-                ImageIcon cachedIcon = imageCache.get(mod.id);
+                String names = mod.authors != null && !mod.authors.isEmpty()
+                        ? mod.authors.stream().map(a -> a.name).reduce((a, b) -> a + ", " + b).orElse("Unknown")
+                        : "Unknown";
 
-                if (cachedIcon != null)
-                {
-                    JLabel imgLabel = new JLabel(cachedIcon);
-                    imgLabel.setHorizontalAlignment(SwingConstants.CENTER);
-                    imagePanel.add(imgLabel, BorderLayout.CENTER);
-                }
-                else if (loadingImages.getOrDefault(mod.id, false))
-                {
-                    JLabel loadingLabel = new JLabel("...", SwingConstants.CENTER);
-                    loadingLabel.setForeground(new Color(255, 168, 69, 100));
-                    loadingLabel.setFont(new Font("Segoe UI", Font.PLAIN, 16));
-                    imagePanel.add(loadingLabel, BorderLayout.CENTER);
-                }
-                else
-                {
-                    loadingImages.put(mod.id, true);
+                String categories = mod.categories != null && !mod.categories.isEmpty()
+                        ? mod.categories.stream().limit(3).map(c -> c.name).reduce((a, b) -> a + ", " + b).orElse("")
+                        : "";
 
-                    JLabel loadingLabel = new JLabel("...", SwingConstants.CENTER);
-                    loadingLabel.setForeground(new Color(255, 168, 69, 100));
-                    loadingLabel.setFont(new Font("Segoe UI", Font.PLAIN, 16));
-                    imagePanel.add(loadingLabel, BorderLayout.CENTER);
+                String downloads = mod.downloadCount > 0
+                        ? formatDownloads(mod.downloadCount) + " downloads"
+                        : "ID: " + mod.id;
 
-                    CompletableFuture.runAsync(() ->
-                    {
-                        try {
-                            URL url = new URL(mod.logo.thumbnailUrl);
-                            java.awt.image.BufferedImage img = javax.imageio.ImageIO.read(url);
-                            if (img != null)
-                            {
-                                java.awt.Image scaled = img.getScaledInstance(80, 80, java.awt.Image.SCALE_SMOOTH);
-                                ImageIcon icon = new ImageIcon(scaled);
-                                imageCache.put(mod.id, icon);
-
-                                SwingUtilities.invokeLater(() -> {
-                                    loadingImages.put(mod.id, false);
-                                    list.repaint();
-                                });
-                            }
-                            else
-                            {
-                                loadingImages.put(mod.id, false);
-                            }
-                        } catch (Exception e)
-                        {
-                            loadingImages.put(mod.id, false);
-                        }
-                    });
-                }
-            }
-            else
-            {
-                JLabel placeholderLabel = new JLabel("?", SwingConstants.CENTER);
-                placeholderLabel.setFont(new Font("Segoe UI Emoji", Font.PLAIN, 40));
-                placeholderLabel.setForeground(new Color(255, 168, 69, 80));
-                imagePanel.add(placeholderLabel, BorderLayout.CENTER);
+                this.authors = "by " + names;
+                this.info = categories.isEmpty() ? downloads : (categories + " • " + downloads);
             }
+        }
 
-            panel.add(imagePanel, BorderLayout.WEST);
-
-            String authors = mod.authors != null && !mod.authors.isEmpty()
-                    ? mod.authors.stream().map(a -> a.name).reduce((a, b) -> a + ", " + b).orElse("Unknown")
-                    : "Unknown";
+        private final Map<CurseForgeAPI.Mod, ModText> texts = new WeakHashMap<>();
+        private final CellPanel panel = new CellPanel(new BorderLayout(10, 0));
+        private final CellPanel textPanel = new CellPanel(null);
+        private final CellLabel imageLabel = new CellLabel(LOADING_FONT, LOADING);
+        private final CellLabel nameLabel = new CellLabel(NAME_FONT, ACCENT);
+        private final CellLabel authorLabel = new CellLabel(AUTHOR_FONT, MUTED);
+        private final CellLabel infoLabel = new CellLabel(INFO_FONT, DIM);
+        private final ImageIcon icon = new ImageIcon();
+        private JList<?> boundList;
+        private final Runnable repaintList = () -> {
+            if (boundList != null) boundList.repaint();
+        };
 
-            String categories = mod.categories != null && !mod.categories.isEmpty()
-                    ? mod.categories.stream().limit(3).map(c -> c.name).reduce((a, b) -> a + ", " + b).orElse("")
-                    : "";
+        CurseForgeModRenderer()
+        {
+            panel.setOpaque(true);
+            panel.setBorder(ROW_BORDER);
 
-            String downloads = mod.downloadCount > 0
-                    ? formatDownloads(mod.downloadCount) + " downloads"
-                    : "ID: " + mod.id;
+            CellPanel imagePanel = new CellPanel(new BorderLayout());
+            imagePanel.setOpaque(false);
+            imagePanel.setPreferredSize(new Dimension(80, 80));
+            imagePanel.setMinimumSize(new Dimension(80, 80));
+            imageLabel.setHorizontalAlignment(SwingConstants.CENTER);
+            imagePanel.add(imageLabel, BorderLayout.CENTER);
 
-            JPanel textPanel = new JPanel();
             textPanel.setLayout(new BoxLayout(textPanel, BoxLayout.Y_AXIS));
             textPanel.setOpaque(false);
-            textPanel.setBorder(new EmptyBorder(5, 0, 5, 0));
-
-            JLabel nameLabel = new JLabel(mod.name);
-            nameLabel.setFont(new Font("Segoe UI", Font.BOLD, 15));
-            nameLabel.setForeground(new Color(255, 168, 69));
+            textPanel.setBorder(TEXT_BORDER);
             nameLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
-
-            JLabel authorLabel = new JLabel("by " + authors);
-            authorLabel.setFont(new Font("Segoe UI", Font.PLAIN, 11));
-            authorLabel.setForeground(new Color(153, 153, 153));
             authorLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
-
-            String info = categories.isEmpty() ? downloads : (categories + " • " + downloads);
-            JLabel infoLabel = new JLabel(info);
-            infoLabel.setFont(new Font("Segoe UI", Font.PLAIN, 10));
-            infoLabel.setForeground(new Color(102, 102, 102));
             infoLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
 
             textPanel.add(nameLabel);
@@ -1337,12 +1495,60 @@ public class ModManagerDialog extends JDialog
             textPanel.add(Box.createVerticalStrut(2));
             textPanel.add(infoLabel);
 
+            panel.add(imagePanel, BorderLayout.WEST);
             panel.add(textPanel, BorderLayout.CENTER);
+        }
 
+        @Override
+        public Component getListCellRendererComponent(JList<? extends CurseForgeAPI.Mod> list, CurseForgeAPI.Mod mod,
+                                                      int index, boolean isSelected, boolean cellHasFocus)
+        {
+            boundList = list;
+            panel.setBackground(isSelected ? ROW_SELECTED : ROW_BACKGROUND);
+
+            if (mod.logo != null && mod.logo.thumbnailUrl != null)
+            {
+                thumbnailUrls.put(mod.id, mod.logo.thumbnailUrl);
+                java.awt.image.BufferedImage image = ImageService.get().get(mod.logo.thumbnailUrl,
+                        80, 80, ImageService.Fit.STRETCH, repaintList);
+
+                if (image != null) {
+                    showImage(image);
+                } else {
+                    showText("...", LOADING_FONT, LOADING);
+                }
+            }
+            else
+            {
+                showText("?", PLACEHOLDER_FONT, PLACEHOLDER);
+            }
+
+            ModText text = texts.computeIfAbsent(mod, ModText::new);
+            nameLabel.setText(mod.name);
+            authorLabel.setText(text.authors);
+            infoLabel.setText(text.info);
+
+            panel.invalidate();
+            textPanel.invalidate();
             return panel;
         }
 
-        private String formatDownloads(long count)
+        private void showImage(java.awt.image.BufferedImage image)
+        {
+            icon.setImage(image);
+            imageLabel.setIcon(icon);
+            imageLabel.setText(null);
+        }
+
+        private void showText(String text, Font font, Color color)
+        {
+            imageLabel.setIcon(null);
+            imageLabel.setText(text);
+            imageLabel.setFont(font);
+            imageLabel.setForeground(color);
+        }
+
+        private static String formatDownloads(long count)
         {
             if (count >= 1_000_000)
             {
@@ -1355,125 +1561,46 @@ public class ModManagerDialog extends JDialog
 
             return String.valueOf(count);
         }
-
-        private String escapeHtml(String text)
-        {
-            if (text == null) {
-                return "";
-            }
-
-            return text.replace("&", "&amp;")
-                    .replace("<", "&lt;")
-                    .replace(">", "&gt;")
-                    .replace("\"", "&quot;");
-        }
     }
 
-    private static class InstalledModRenderer extends DefaultListCellRenderer
+    static class InstalledModRenderer implements ListCellRenderer<ModManager.InstalledMod>
     {
-        private static final Map<Integer, ImageIcon> imageCache = CurseForgeModRenderer.imageCache;
+        private static final Font NAME_FONT = new Font("Segoe UI", Font.BOLD, 14);
+        private static final Font DETAILS_FONT = new Font("Segoe UI", Font.PLAIN, 10);
+        private static final Font LOADING_FONT = new Font("Segoe UI", Font.PLAIN, 13);
+        private static final Font PLACEHOLDER_FONT = new Font("Segoe UI Emoji", Font.PLAIN, 30);
+
+        private final Map<ModManager.InstalledMod, String> details = new WeakHashMap<>();
+        private final CellPanel panel = new CellPanel(new BorderLayout(10, 0));
+        private final CellPanel textPanel = new CellPanel(null);
+        private final CellPanel detailsPanel = new CellPanel(new FlowLayout(FlowLayout.LEFT, 0, 0));
+        private final CellLabel imageLabel = new CellLabel(LOADING_FONT, PLACEHOLDER);
+        private final CellLabel nameLabel = new CellLabel(NAME_FONT, Color.WHITE);
+        private final CellLabel detailsLabel = new CellLabel(DETAILS_FONT, MUTED);
+        private final CellLabel statusLabel = new CellLabel(DETAILS_FONT, ENABLED);
+        private final ImageIcon icon = new ImageIcon();
+        private JList<?> boundList;
+        private final Runnable repaintList = () -> {
+            if (boundList != null) boundList.repaint();
+        };
 
-        @Override
-        public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected, boolean cellHasFocus)
+        InstalledModRenderer()
         {
-            if (!(value instanceof ModManager.InstalledMod mod)) {
-                return super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
-            }
-
-            JPanel panel = new JPanel(new BorderLayout(10, 0));
             panel.setOpaque(true);
+            panel.setBorder(ROW_BORDER);
 
-            panel.setBackground(isSelected
-                    ? new Color(255, 168, 69, 100)
-                    : new Color(26, 26, 32));
-
-            panel.setBorder(new EmptyBorder(10, 15, 10, 15));
-
-            JPanel imagePanel = new JPanel(new BorderLayout());
+            CellPanel imagePanel = new CellPanel(new BorderLayout());
             imagePanel.setOpaque(false);
             imagePanel.setPreferredSize(new Dimension(60, 60));
             imagePanel.setMinimumSize(new Dimension(60, 60));
+            imageLabel.setHorizontalAlignment(SwingConstants.CENTER);
+            imagePanel.add(imageLabel, BorderLayout.CENTER);
 
-            if (mod.curseForgeId > 0 && imageCache.containsKey(mod.curseForgeId))
-            {
-                ImageIcon cachedIcon = imageCache.get(mod.curseForgeId);
-                java.awt.Image scaled = cachedIcon.getImage().getScaledInstance(60, 60, java.awt.Image.SCALE_SMOOTH);
-                JLabel imgLabel = new JLabel(new ImageIcon(scaled));
-                imgLabel.setHorizontalAlignment(SwingConstants.CENTER);
-                imagePanel.add(imgLabel, BorderLayout.CENTER);
-            }
-            else if (mod.iconUrl != null && !mod.iconUrl.isEmpty())
-            {
-                ImageIcon cached = CurseForgeModRenderer.customIconCache.get(mod.iconUrl);
-                if (cached != null)
-                {
-                    java.awt.Image scaled = cached.getImage().getScaledInstance(60, 60, java.awt.Image.SCALE_SMOOTH);
-                    JLabel imgLabel = new JLabel(new ImageIcon(scaled));
-                    imgLabel.setHorizontalAlignment(SwingConstants.CENTER);
-                    imagePanel.add(imgLabel, BorderLayout.CENTER);
-                }
-                else
-                {
-                    JLabel loadingLabel = new JLabel("...", SwingConstants.CENTER);
-                    loadingLabel.setForeground(new Color(255, 168, 69, 80));
-                    imagePanel.add(loadingLabel, BorderLayout.CENTER);
-
-                    CompletableFuture.runAsync(() ->
-                    {
-                        try
-                        {
-                            URL url = new URL(mod.iconUrl);
-                            java.awt.image.BufferedImage img = javax.imageio.ImageIO.read(url);
-
-                            if (img != null)
-                            {
-                                ImageIcon icon = new ImageIcon(img);
-                                CurseForgeModRenderer.customIconCache.put(mod.iconUrl, icon);
-
-                                SwingUtilities.invokeLater(() -> {
-                                    list.repaint();
-                                });
-                            }
-                        } catch (Exception e)
-                        {
-                            // ...
-                        }
-                    });
-                }
-            }
-            else
-            {
-                JLabel placeholderLabel = new JLabel("?", SwingConstants.CENTER);
-                placeholderLabel.setFont(new Font("Segoe UI Emoji", Font.PLAIN, 30));
-                placeholderLabel.setForeground(new Color(255, 168, 69, 80));
-                imagePanel.add(placeholderLabel, BorderLayout.CENTER);
-            }
-
-            panel.add(imagePanel, BorderLayout.WEST);
-
-            JPanel textPanel = new JPanel();
             textPanel.setLayout(new BoxLayout(textPanel, BoxLayout.Y_AXIS));
             textPanel.setOpaque(false);
-            textPanel.setBorder(new EmptyBorder(5, 0, 5, 0));
-
-            JLabel nameLabel = new JLabel(mod.name);
-            nameLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
-            nameLabel.setForeground(Color.WHITE);
+            textPanel.setBorder(TEXT_BORDER);
             nameLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
 
-            String statusText = mod.enabled ? "✓ Enabled" : "✗ Disabled";
-            Color statusColor = mod.enabled ? new Color(144, 238, 144) : new Color(255, 107, 107);
-
-            JLabel detailsLabel = new JLabel(String.format("%s • v%s • ", mod.author, mod.version));
-            detailsLabel.setFont(new Font("Segoe UI", Font.PLAIN, 10));
-            detailsLabel.setForeground(new Color(153, 153, 153));
-            detailsLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
-
-            JLabel statusLabel = new JLabel(statusText);
-            statusLabel.setFont(new Font("Segoe UI", Font.PLAIN, 10));
-            statusLabel.setForeground(statusColor);
-
-            JPanel detailsPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 0, 0));
             detailsPanel.setOpaque(false);
             detailsPanel.add(detailsLabel);
             detailsPanel.add(statusLabel);
@@ -1483,18 +1610,57 @@ public class ModManagerDialog extends JDialog
             textPanel.add(Box.createVerticalStrut(3));
             textPanel.add(detailsPanel);
 
+            panel.add(imagePanel, BorderLayout.WEST);
             panel.add(textPanel, BorderLayout.CENTER);
-
-            return panel;
         }
 
-        private String escapeHtml(String text)
+        @Override
+        public Component getListCellRendererComponent(JList<? extends ModManager.InstalledMod> list,
+                                                      ModManager.InstalledMod mod, int index,
+                                                      boolean isSelected, boolean cellHasFocus)
         {
-            if (text == null) return "";
-            return text.replace("&", "&amp;")
-                    .replace("<", "&lt;")
-                    .replace(">", "&gt;")
-                    .replace("\"", "&quot;");
+            boundList = list;
+            panel.setBackground(isSelected ? ROW_SELECTED : ROW_BACKGROUND);
+
+            String iconUrl = mod.iconUrl != null && !mod.iconUrl.isEmpty()
+                    ? mod.iconUrl
+                    : CurseForgeModRenderer.thumbnailUrls.get(mod.curseForgeId);
+
+            if (iconUrl != null)
+            {
+                java.awt.image.BufferedImage image = ImageService.get().get(iconUrl,
+                        60, 60, ImageService.Fit.STRETCH, repaintList);
+
+                if (image != null)
+                {
+                    icon.setImage(image);
+                    imageLabel.setIcon(icon);
+                    imageLabel.setText(null);
+                }
+                else
+                {
+                    imageLabel.setIcon(null);
+                    imageLabel.setText("...");
+                    imageLabel.setFont(LOADING_FONT);
+                }
+            }
+            else
+            {
+                imageLabel.setIcon(null);
+                imageLabel.setText("?");
+                imageLabel.setFont(PLACEHOLDER_FONT);
+            }
+
+            nameLabel.setText(mod.name);
+            detailsLabel.setText(details.computeIfAbsent(mod,
+                    m -> String.format("%s • v%s • ", m.author, m.version)));
+            statusLabel.setText(mod.enabled ? "✓ Enabled" : "✗ Disabled");
+            statusLabel.setForeground(mod.enabled ? ENABLED : DISABLED);
+
+            panel.invalidate();
+            textPanel.invalidate();
+            detailsPanel.invalidate();
+            return panel;
         }
     }
-}
\ No newline at end of file
+}
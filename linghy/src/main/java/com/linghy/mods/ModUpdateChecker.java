@@ -0,0 +1,185 @@
+package com.linghy.mods;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.linghy.env.Environment;
+import com.linghy.mods.curseforge.CurseForgeAPI;
+import com.linghy.net.Http;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// Looks up the newest file of every installed CurseForge mod: bulk POST /mods first, then bounded-parallel
+// per-mod requests for whatever the bulk call could not answer. Recent answers are reused without a request.
+public class ModUpdateChecker
+{
+    private static final int BATCH_SIZE = 100;
+    private static final int FALLBACK_CONCURRENCY = 6;
+    private static final long RECHECK_INTERVAL_MS = 30 * 60 * 1000L;
+
+    public static class Result
+    {
+        public final ModManager.InstalledMod mod;
+        public final int latestFileId;
+        public final String latestName;
+
+        Result(ModManager.InstalledMod mod, int latestFileId, String latestName)
+        {
+            this.mod = mod;
+            this.latestFileId = latestFileId;
+            this.latestName = latestName;
+        }
+
+        public boolean isUpdateAvailable() {
+            return latestFileId > 0 && latestFileId != mod.fileId;
+        }
+    }
+
+    public interface Listener {
+        void onResult(Result result);
+    }
+
+    private static class CheckRecord
+    {
+        long checkedAt;
+        int installedFileId;
+        int latestFileId;
+        String latestName;
+    }
+
+    private final Gson gson = new Gson();
+    private final Path stateFile = Environment.getDefaultAppDir().resolve("cache").resolve("mod-updates.json");
+
+    // Blocks until every mod is checked; listener is called from worker threads as results arrive.
+    public List<Result> check(List<ModManager.InstalledMod> installed, Listener listener)
+    {
+        Map<Integer, CheckRecord> records = loadRecords();
+        List<Result> results = Collections.synchronizedList(new ArrayList<>());
+        Map<Integer, List<ModManager.InstalledMod>> pending = new LinkedHashMap<>();
+        long now = System.currentTimeMillis();
+
+        for (ModManager.InstalledMod mod : installed)
+        {
+            if (mod.curseForgeId <= 0 || mod.fileId <= 0) continue;
+
+            CheckRecord record = records.get(mod.curseForgeId);
+            if (record != null && record.installedFileId == mod.fileId
+                    && now - record.checkedAt < RECHECK_INTERVAL_MS)
+            {
+                emit(new Result(mod, record.latestFileId, record.latestName), results, listener);
+                continue;
+            }
+
+            pending.computeIfAbsent(mod.curseForgeId, id -> new ArrayList<>()).add(mod);
+        }
+
+        Queue<Integer> fallback = new ConcurrentLinkedQueue<>();
+        List<Integer> ids = new ArrayList<>(pending.keySet());
+
+        for (int i = 0; i < ids.size(); i += BATCH_SIZE)
+        {
+            List<Integer> batch = ids.subList(i, Math.min(ids.size(), i + BATCH_SIZE));
+            Set<Integer> answered = new HashSet<>();
+
+            try {
+                for (CurseForgeAPI.Mod mod : CurseForgeAPI.getMods(batch))
+                {
+                    CurseForgeAPI.ModFile latest = CurseForgeAPI.latestFileOf(mod);
+                    if (latest == null || !pending.containsKey(mod.id)) continue;
+
+                    answered.add(mod.id);
+                    record(records, pending.get(mod.id), latest, results, listener);
+                }
+            } catch (Exception e) {
+                System.err.println("Bulk update check failed, checking mods one by one: " + e.getMessage());
+            }
+
+            for (Integer id : batch) {
+                if (!answered.contains(id)) fallback.add(id);
+            }
+        }
+
+        if (!fallback.isEmpty())
+        {
+            CompletableFuture<?>[] workers = new CompletableFuture<?>[Math.min(FALLBACK_CONCURRENCY, fallback.size())];
+            for (int i = 0; i < workers.length; i++)
+            {
+                workers[i] = CompletableFuture.runAsync(() ->
+                {
+                    Integer id;
+                    while ((id = fallback.poll()) != null)
+                    {
+                        try {
+                            CurseForgeAPI.ModFile latest = CurseForgeAPI.getLatestFile(id);
+                            if (latest != null) record(records, pending.get(id), latest, results, listener);
+                        } catch (Exception e) {
+                            System.err.println("Update check failed for mod " + id + ": " + e.getMessage());
+                        }
+                    }
+                }, Http.executor());
+            }
+            CompletableFuture.allOf(workers).join();
+        }
+
+        saveRecords(records);
+        return results;
+    }
+
+    private void record(Map<Integer, CheckRecord> records, List<ModManager.InstalledMod> mods,
+                        CurseForgeAPI.ModFile latest, List<Result> results, Listener listener)
+    {
+        String name = latest.displayName != null ? latest.displayName : latest.fileName;
+
+        for (ModManager.InstalledMod mod : mods)
+        {
+            CheckRecord record = new CheckRecord();
+            record.checkedAt = System.currentTimeMillis();
+            record.installedFileId = mod.fileId;
+            record.latestFileId = latest.id;
+            record.latestName = name;
+            records.put(mod.curseForgeId, record);
+
+            emit(new Result(mod, latest.id, name), results, listener);
+        }
+    }
+
+    private static void emit(Result result, List<Result> results, Listener listener)
+    {
+        results.add(result);
+        if (listener != null) listener.onResult(result);
+    }
+
+    private Map<Integer, CheckRecord> loadRecords()
+    {
+        Map<Integer, CheckRecord> records = new ConcurrentHashMap<>();
+        if (!Files.exists(stateFile)) return records;
+
+        try {
+            Map<Integer, CheckRecord> saved = gson.fromJson(Files.readString(stateFile, StandardCharsets.UTF_8),
+                    new TypeToken<Map<Integer, CheckRecord>>() {}.getType());
+            if (saved != null) records.putAll(saved);
+        } catch (Exception e) {
+            System.err.println("Failed to read update check state: " + e.getMessage());
+        }
+        return records;
+    }
+
+    private void saveRecords(Map<Integer, CheckRecord> records)
+    {
+        Path temp = stateFile.resolveSibling(stateFile.getFileName() + ".new");
+        try {
+            Files.createDirectories(stateFile.getParent());
+            Files.writeString(temp, gson.toJson(records), StandardCharsets.UTF_8);
+            Files.move(temp, stateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Failed to save update check state: " + e.getMessage());
+        }
+    }
+}
@@ -1,36 +1,143 @@
 package com.linghy.mods.curseforge;
 
+import com.linghy.net.Endpoints;
+import com.linghy.net.Http;
+
 import java.net.http.*;
-import java.net.*;
 import java.nio.file.Path;
-import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 public final class CFHttp
 {
-    private static final String BASE = "https://api.curseforge.com/v1/";
-    private static final HttpClient CLIENT = HttpClient.newBuilder()
-            .connectTimeout(Duration.ofSeconds(10))
-            .build();
+    private static final String BASE = Endpoints.CURSEFORGE + "/";
+
+    public static HttpResponse<String> get(String path) throws Exception {
+        return await(getAsync(path, null, null));
+    }
+
+    // Served from CFResponseCache; onRefresh (may be null) gets the newer body when a stale one was returned.
+    public static String getCached(String path, Consumer<String> onRefresh) throws Exception {
+        return CFResponseCache.get().get(path, onRefresh);
+    }
+
+    // Cancelling the returned future cancels the request; other callers of the same path are unaffected.
+    public static CompletableFuture<String> getCachedAsync(String path, Consumer<String> onRefresh) {
+        return CFResponseCache.get().getAsync(path, onRefresh);
+    }
+
+    static CompletableFuture<HttpResponse<String>> getAsync(String path, String etag, String lastModified)
+    {
+        return exchangeAsync(key ->
+        {
+            HttpRequest.Builder req = request(path, key).GET();
+
+            if (etag != null) req.header("If-None-Match", etag);
+            if (lastModified != null) req.header("If-Modified-Since", lastModified);
+
+            return req.build();
+        });
+    }
 
-    public static HttpResponse<String> get(String path) throws Exception
+    public static HttpResponse<String> post(String path, String json) throws Exception
     {
-        HttpRequest req = HttpRequest.newBuilder()
-                .uri(URI.create(BASE + path))
+        return await(exchangeAsync(key -> request(path, key)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build()));
+    }
+
+    private static HttpRequest.Builder request(String path, String key)
+    {
+        return Http.request(BASE + path)
                 .header("Accept", "application/json")
-                .header("x-api-key", CurseForgeAPI.getApiKey())
-                .GET()
-                .build();
+                .header("x-api-key", key);
+    }
+
+    private static CompletableFuture<HttpResponse<String>> exchangeAsync(Function<String, HttpRequest> build)
+    {
+        CompletableFuture<HttpResponse<String>> result = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<?>> current = new AtomicReference<>();
 
-        return CLIENT.send(req, HttpResponse.BodyHandlers.ofString());
+        result.whenComplete((response, error) ->
+        {
+            CompletableFuture<?> step = current.get();
+            if (result.isCancelled() && step != null) step.cancel(true);
+        });
+
+        CompletableFuture<String> key = CFKeyProvider.getAsync();
+        current.set(key);
+        key.whenComplete((k, error) ->
+        {
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                send(build, k, true, result, current);
+            }
+        });
+        return result;
+    }
+
+    private static void send(Function<String, HttpRequest> build, String key, boolean mayRetry,
+                             CompletableFuture<HttpResponse<String>> result,
+                             AtomicReference<CompletableFuture<?>> current)
+    {
+        if (result.isDone()) return;
+
+        CompletableFuture<HttpResponse<String>> call = Http.sendAsync(build.apply(key), HttpResponse.BodyHandlers.ofString());
+        current.set(call);
+        if (result.isCancelled()) call.cancel(true);
+
+        call.whenComplete((response, error) ->
+        {
+            if (error != null)
+            {
+                result.completeExceptionally(error);
+                return;
+            }
+
+            // The key is rotated upstream from time to time; refetch it once and retry.
+            if (mayRetry && (response.statusCode() == 401 || response.statusCode() == 403))
+            {
+                CFKeyProvider.invalidate(key);
+                CompletableFuture<String> refresh = CFKeyProvider.getAsync();
+                current.set(refresh);
+                refresh.whenComplete((refreshed, keyError) ->
+                {
+                    if (keyError == null && !refreshed.equals(key)) {
+                        send(build, refreshed, false, result, current);
+                    } else {
+                        result.complete(response);
+                    }
+                });
+                return;
+            }
+
+            result.complete(response);
+        });
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws Exception
+    {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
     }
 
     public static HttpResponse<Path> download(String url, Path out) throws Exception
     {
-        HttpRequest req = HttpRequest.newBuilder()
-                .uri(URI.create(url))
+        HttpRequest req = Http.request(url)
                 .GET()
                 .build();
 
-        return CLIENT.send(req, HttpResponse.BodyHandlers.ofFile(out));
+        return Http.send(req, HttpResponse.BodyHandlers.ofFile(out));
     }
 }
@@ -0,0 +1,149 @@
+package com.linghy.mods.curseforge;
+
+import com.linghy.env.Environment;
+import com.linghy.net.Endpoints;
+import com.linghy.net.Http;
+import com.linghy.utils.CryptoUtil;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+// Resolves the CurseForge key once per session: the encrypted local copy while it is fresh,
+// the published key otherwise, and an expired local copy if the published one cannot be fetched.
+// Decrypting costs a full PBKDF2 derivation, so it is never done per request. The fetch is asynchronous,
+// so no thread waits on the network for the key.
+final class CFKeyProvider
+{
+    private static final Duration TTL = Duration.ofDays(7);
+
+    private static CompletableFuture<String> pending;
+
+    private CFKeyProvider() {}
+
+    static synchronized CompletableFuture<String> resolveAsync()
+    {
+        if (pending == null)
+        {
+            pending = CompletableFuture.supplyAsync(() -> readLocal(true), Http.executor())
+                    .thenCompose(key -> key != null ? CompletableFuture.completedFuture(key) : fetchRemoteAsync());
+        }
+        return pending;
+    }
+
+    // A copy of the shared resolve, so a caller cancelling its request does not cancel it for everyone else.
+    static CompletableFuture<String> getAsync()
+    {
+        return resolveAsync().thenApply(key ->
+        {
+            if (key.isEmpty()) forget();
+            return key;
+        });
+    }
+
+    static String get() {
+        return getAsync().join();
+    }
+
+    // A failed resolve is not memoized, the next request tries again.
+    private static synchronized void forget()
+    {
+        if (pending != null && pending.isDone() && pending.join().isEmpty()) {
+            pending = null;
+        }
+    }
+
+    // Called when the API rejected the key. Only the first caller to report a given key triggers a refetch.
+    static synchronized void invalidate(String rejected)
+    {
+        if (pending == null || !pending.isDone() || !rejected.equals(pending.join())) return;
+
+        System.out.println("CurseForge key rejected, refreshing");
+        try {
+            Files.deleteIfExists(localCopy());
+        } catch (Exception e) {
+            System.err.println("Failed to drop cached CurseForge key: " + e.getMessage());
+        }
+
+        pending = fetchRemoteAsync();
+    }
+
+    // Null if there is no usable local copy; fresh limits it to one younger than the TTL.
+    private static String readLocal(boolean fresh)
+    {
+        Path local = localCopy();
+
+        try {
+            if (!Files.exists(local)) return null;
+
+            Instant written = Files.getLastModifiedTime(local).toInstant();
+            if (fresh && !written.plus(TTL).isAfter(Instant.now())) return null;
+
+            String key = CryptoUtil.readEncrypted(local);
+            return key.isEmpty() ? null : key;
+        } catch (Exception e) {
+            System.err.println("Cached CurseForge key unreadable: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static CompletableFuture<String> fetchRemoteAsync()
+    {
+        HttpRequest request = Http.request(Endpoints.CURSEFORGE_KEY)
+                .GET()
+                .build();
+
+        return Http.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()).thenApplyAsync(response ->
+        {
+            if (response.statusCode() != 200) {
+                throw new CompletionException(new IOException("status " + response.statusCode()));
+            }
+
+            try {
+                String key = CryptoUtil.readEncryptedBytes(response.body());
+                store(key);
+                return key;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, Http.executor()).exceptionally(error ->
+        {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            System.err.println("Failed to fetch API key: " + cause.getMessage());
+
+            String stale = readLocal(false);
+            if (stale != null)
+            {
+                System.out.println("Using the expired cached CurseForge key");
+                return stale;
+            }
+            return "";
+        });
+    }
+
+    private static void store(String key)
+    {
+        if (key.isEmpty()) return;
+
+        Path local = localCopy();
+        Path temp = local.resolveSibling(local.getFileName() + ".new");
+        try {
+            Files.createDirectories(local.getParent());
+            CryptoUtil.writeEncrypted(temp, key);
+            Files.move(temp, local, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            System.err.println("Failed to cache CurseForge key: " + e.getMessage());
+        }
+    }
+
+    private static Path localCopy() {
+        return Environment.getDefaultAppDir().resolve("cf.key");
+    }
+}
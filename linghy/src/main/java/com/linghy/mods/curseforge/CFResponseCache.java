@@ -0,0 +1,406 @@
+package com.linghy.mods.curseforge;
+
+import com.google.gson.Gson;
+import com.linghy.env.Environment;
+import com.linghy.net.Http;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Two tiers keyed by request path: a small LRU in memory in front of one JSON file per response on disk.
+// Fresh entries are served as is; stale ones are served immediately and revalidated in the background.
+final class CFResponseCache
+{
+    private static final long DEFAULT_MAX_AGE_MS = 5 * 60 * 1000L;
+    private static final long STALE_WINDOW_MS = 7L * 24 * 60 * 60 * 1000;
+    private static final int MEMORY_BUDGET_CHARS = 8 * 1024 * 1024;
+    private static final long DISK_BUDGET_BYTES = 64L * 1024 * 1024;
+    private static final Pattern MAX_AGE = Pattern.compile("max-age=(\\d+)");
+
+    private static final CFResponseCache INSTANCE = new CFResponseCache();
+
+    private static class Entry
+    {
+        String path;
+        String body;
+        String etag;
+        String lastModified;
+        long storedAt;
+        long maxAge;
+        // Cache-Control: no-cache; only ever used after the server has confirmed it.
+        boolean noCache;
+
+        boolean isFresh(long now) {
+            return now - storedAt < maxAge;
+        }
+
+        boolean isUsable(long now) {
+            return now - storedAt < maxAge + STALE_WINDOW_MS;
+        }
+
+        boolean mayServeStale(long now) {
+            return !noCache && isUsable(now);
+        }
+    }
+
+    private static class Flight
+    {
+        final CompletableFuture<Entry> result = new CompletableFuture<>();
+        CompletableFuture<HttpResponse<String>> request;
+        int waiters;
+        boolean pinned;
+    }
+
+    private final Gson gson = new Gson();
+    private final Path root = Environment.getDefaultAppDir().resolve("cache").resolve("curseforge");
+    private final Map<String, Flight> inFlight = new HashMap<>();
+    private final LinkedHashMap<String, Entry> memory = new LinkedHashMap<>(64, 0.75f, true);
+    private long memoryChars;
+
+    private CFResponseCache() {}
+
+    static CFResponseCache get() {
+        return INSTANCE;
+    }
+
+    // onRefresh (may be null) receives the new body if a stale response was served and the server had a newer one.
+    String get(String path, Consumer<String> onRefresh) throws Exception
+    {
+        CompletableFuture<String> body = new CompletableFuture<>();
+        serve(path, onRefresh, body);
+
+        try {
+            return body.get();
+        } catch (InterruptedException e) {
+            body.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    // Cancelling the returned future withdraws this caller from the shared request, which is
+    // cancelled once nobody is waiting for it any more.
+    CompletableFuture<String> getAsync(String path, Consumer<String> onRefresh)
+    {
+        CompletableFuture<String> body = new CompletableFuture<>();
+        Http.executor().execute(() -> serve(path, onRefresh, body));
+        return body;
+    }
+
+    private void serve(String path, Consumer<String> onRefresh, CompletableFuture<String> body)
+    {
+        if (body.isDone()) return;
+
+        long now = System.currentTimeMillis();
+        Entry cached = lookup(path);
+
+        if (cached != null && cached.isFresh(now))
+        {
+            body.complete(cached.body);
+            return;
+        }
+
+        if (cached != null && cached.mayServeStale(now))
+        {
+            join(path, cached, true).result.thenAccept(updated ->
+            {
+                if (onRefresh != null && updated != null && !updated.body.equals(cached.body)) {
+                    onRefresh.accept(updated.body);
+                }
+            });
+            body.complete(cached.body);
+            return;
+        }
+
+        Flight flight = join(path, cached, false);
+        body.whenComplete((b, e) ->
+        {
+            if (body.isCancelled()) release(path, flight);
+        });
+
+        flight.result.whenComplete((entry, error) ->
+        {
+            if (error == null && entry != null)
+            {
+                body.complete(entry.body);
+            }
+            else if (cached != null && !cached.noCache)
+            {
+                System.err.println("CurseForge unreachable, serving cached " + path + ": "
+                        + (error != null ? error.getMessage() : "no data"));
+                body.complete(cached.body);
+            }
+            else
+            {
+                body.completeExceptionally(error != null ? error
+                        : new IOException("CurseForge returned no data for " + path));
+            }
+        });
+    }
+
+    // One request per path at a time; concurrent callers share its result. A background revalidation
+    // pins its flight so it completes even when every foreground caller has gone.
+    private Flight join(String path, Entry known, boolean pinned)
+    {
+        synchronized (inFlight)
+        {
+            Flight flight = inFlight.get(path);
+            if (flight == null)
+            {
+                flight = new Flight();
+                inFlight.put(path, flight);
+                start(path, known, flight);
+            }
+
+            if (pinned) {
+                flight.pinned = true;
+            } else {
+                flight.waiters++;
+            }
+            return flight;
+        }
+    }
+
+    private void start(String path, Entry known, Flight flight)
+    {
+        flight.request = CFHttp.getAsync(path,
+                known != null ? known.etag : null,
+                known != null ? known.lastModified : null);
+
+        flight.request.whenComplete((response, error) ->
+        {
+            synchronized (inFlight) {
+                inFlight.remove(path, flight);
+            }
+
+            if (error != null)
+            {
+                flight.result.completeExceptionally(error);
+                return;
+            }
+
+            try {
+                flight.result.complete(accept(path, known, response));
+            } catch (Exception e) {
+                flight.result.completeExceptionally(e);
+            }
+        });
+    }
+
+    private void release(String path, Flight flight)
+    {
+        synchronized (inFlight)
+        {
+            if (--flight.waiters > 0 || flight.pinned) return;
+            inFlight.remove(path, flight);
+        }
+        flight.request.cancel(true);
+    }
+
+    private Entry accept(String path, Entry known, HttpResponse<String> response) throws IOException
+    {
+        long now = System.currentTimeMillis();
+        String cacheControl = response.headers().firstValue("Cache-Control").orElse("");
+
+        // Entries are shared with the memory tier and concurrent readers, so a revalidated one is replaced, not updated.
+        if (response.statusCode() == 304 && known != null)
+        {
+            Entry revalidated = new Entry();
+            revalidated.path = known.path;
+            revalidated.body = known.body;
+            revalidated.etag = response.headers().firstValue("ETag").orElse(known.etag);
+            revalidated.lastModified = response.headers().firstValue("Last-Modified").orElse(known.lastModified);
+            revalidated.storedAt = now;
+            revalidated.maxAge = maxAge(cacheControl);
+            revalidated.noCache = cacheControl.contains("no-cache");
+            store(revalidated);
+            return revalidated;
+        }
+
+        if (response.statusCode() != 200) {
+            throw new IOException("CurseForge returned HTTP " + response.statusCode() + " for " + path);
+        }
+
+        Entry entry = new Entry();
+        entry.path = path;
+        entry.body = response.body();
+        entry.etag = response.headers().firstValue("ETag").orElse(null);
+        entry.lastModified = response.headers().firstValue("Last-Modified").orElse(null);
+        entry.storedAt = now;
+        entry.maxAge = maxAge(cacheControl);
+        entry.noCache = cacheControl.contains("no-cache");
+
+        if (!cacheControl.contains("no-store")) {
+            store(entry);
+        }
+        return entry;
+    }
+
+    private Entry lookup(String path)
+    {
+        synchronized (memory)
+        {
+            Entry entry = memory.get(path);
+            if (entry != null) return entry;
+        }
+
+        Path file = fileFor(path);
+        if (!Files.exists(file)) return null;
+
+        try {
+            Entry entry = gson.fromJson(Files.readString(file, StandardCharsets.UTF_8), Entry.class);
+            if (entry == null || entry.body == null || !path.equals(entry.path)) return null;
+
+            if (!entry.isUsable(System.currentTimeMillis()))
+            {
+                Files.deleteIfExists(file);
+                return null;
+            }
+
+            remember(entry);
+            return entry;
+        } catch (Exception e) {
+            System.err.println("Discarding unreadable CurseForge cache entry " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void store(Entry entry)
+    {
+        remember(entry);
+
+        Path file = fileFor(entry.path);
+        Path temp = file.resolveSibling(file.getFileName() + ".new");
+        try {
+            Files.createDirectories(root);
+            Files.writeString(temp, gson.toJson(entry), StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Failed to cache CurseForge response: " + e.getMessage());
+        }
+    }
+
+    private void remember(Entry entry)
+    {
+        synchronized (memory)
+        {
+            Entry previous = memory.put(entry.path, entry);
+            if (previous != null) memoryChars -= previous.body.length();
+            memoryChars += entry.body.length();
+
+            var it = memory.values().iterator();
+            while (memoryChars > MEMORY_BUDGET_CHARS && memory.size() > 1)
+            {
+                memoryChars -= it.next().body.length();
+                it.remove();
+            }
+        }
+    }
+
+    // Drops entries past their stale window and leftover temp files, then the least recently stored entries
+    // until the folder fits DISK_BUDGET_BYTES. Files are rewritten on every store, so mtime is storedAt.
+    void prune()
+    {
+        if (!Files.isDirectory(root)) return;
+
+        long now = System.currentTimeMillis();
+        List<Path> kept = new ArrayList<>();
+        Map<Path, BasicFileAttributes> attributes = new HashMap<>();
+        long total = 0;
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(root))
+        {
+            for (Path file : stream)
+            {
+                BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                if (!attrs.isRegularFile()) continue;
+
+                if (file.getFileName().toString().endsWith(".new") || isExpired(file, attrs, now))
+                {
+                    Files.deleteIfExists(file);
+                    continue;
+                }
+
+                kept.add(file);
+                attributes.put(file, attrs);
+                total += attrs.size();
+            }
+        }
+        catch (IOException e)
+        {
+            System.err.println("Failed to prune CurseForge cache: " + e.getMessage());
+            return;
+        }
+
+        kept.sort(Comparator.comparing(file -> attributes.get(file).lastModifiedTime()));
+        for (int i = 0; i < kept.size() && total > DISK_BUDGET_BYTES; i++)
+        {
+            try {
+                Files.deleteIfExists(kept.get(i));
+                total -= attributes.get(kept.get(i)).size();
+            } catch (IOException e) {
+                System.err.println("Failed to prune CurseForge cache entry " + kept.get(i) + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // An entry younger than the stale window cannot be expired whatever its max-age, so only older ones are read.
+    private boolean isExpired(Path file, BasicFileAttributes attrs, long now)
+    {
+        if (now - attrs.lastModifiedTime().toMillis() < STALE_WINDOW_MS) return false;
+
+        try {
+            Entry entry = gson.fromJson(Files.readString(file, StandardCharsets.UTF_8), Entry.class);
+            return entry == null || entry.body == null || !entry.isUsable(now);
+        } catch (Exception e) {
+            return true;
+        }
+    }
+
+    private Path fileFor(String path)
+    {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(path.getBytes(StandardCharsets.UTF_8));
+            return root.resolve(HexFormat.of().formatHex(hash, 0, 16) + ".json");
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long maxAge(String cacheControl)
+    {
+        if (cacheControl.contains("no-cache")) return 0;
+
+        Matcher m = MAX_AGE.matcher(cacheControl);
+        return m.find() ? Long.parseLong(m.group(1)) * 1000 : DEFAULT_MAX_AGE_MS;
+    }
+
+    private static Exception unwrap(Exception e)
+    {
+        Throwable cause = e;
+        while (cause.getCause() != null && !(cause instanceof IOException)) {
+            cause = cause.getCause();
+        }
+        return cause instanceof Exception ex ? ex : e;
+    }
+}
@@ -2,16 +2,17 @@ package com.linghy.mods.curseforge;
 
 import com.google.gson.*;
 import com.google.gson.annotations.SerializedName;
-import com.linghy.utils.CryptoUtil;
+import com.linghy.net.Checksum;
 
-import java.net.URI;
+import java.io.IOException;
 import java.net.URLEncoder;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public class CurseForgeAPI
 {
@@ -42,69 +43,89 @@ public class CurseForgeAPI
         public String getValue() { return value; }
     }
 
-    public static String getApiKey()
+    public static String getApiKey() {
+        return CFKeyProvider.get();
+    }
+
+    // Starts resolving the key in the background so the first mod request does not pay for it.
+    public static void init() {
+        CFKeyProvider.resolveAsync();
+    }
+
+    public static void pruneCache() {
+        CFResponseCache.get().prune();
+    }
+
+    public static List<Mod> searchMods(String query) throws Exception
     {
-        try
-        {
-            String url = "https://raw.githubusercontent.com/0xcds4r/LingHy-Launcher/main/keys/cf.key";
-            HttpClient client = HttpClient.newHttpClient();
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .GET()
-                    .build();
-
-            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
-
-            if (response.statusCode() != 200)
-            {
-                System.err.println("Failed to fetch API key, status: " + response.statusCode());
-                return "";
-            }
+        return searchMods(query, SortField.POPULARITY, SortOrder.DESCENDING);
+    }
 
-            return CryptoUtil.readEncryptedBytes(response.body());
-        }
-        catch (Exception e)
-        {
-            System.err.println("Error fetching API key: " + e.getMessage());
-            e.printStackTrace();
-        }
+    public static List<Mod> searchMods(String query, SortField sortField, SortOrder sortOrder) throws Exception {
+        return searchMods(query, sortField, sortOrder, null);
+    }
 
-        return "";
+    // onRefresh (may be null) is called from a background thread if cached results turn out to be outdated.
+    public static List<Mod> searchMods(String query, SortField sortField, SortOrder sortOrder,
+                                       Consumer<List<Mod>> onRefresh) throws Exception
+    {
+        return searchPage(query, sortField, sortOrder, 0, SearchCursor.PAGE_SIZE,
+                onRefresh == null ? null : page -> onRefresh.accept(page.mods)).mods;
     }
 
-    public static void init()
+    public static SearchPage searchPage(String query, SortField sortField, SortOrder sortOrder, int index,
+                                        int pageSize, Consumer<SearchPage> onRefresh) throws Exception
     {
+        String resp = CFHttp.getCached(searchPath(query, sortField, sortOrder, index, pageSize),
+                onRefresh == null ? null : body -> onRefresh.accept(parsePage(body, index)));
 
+        return parsePage(resp, index);
     }
 
-    public static List<Mod> searchMods(String query) throws Exception
+    // Cancelling the returned future abandons the request unless another search is waiting for the same page.
+    public static CompletableFuture<SearchPage> searchPageAsync(String query, SortField sortField, SortOrder sortOrder,
+                                                                int index, int pageSize, Consumer<SearchPage> onRefresh)
     {
-        return searchMods(query, SortField.POPULARITY, SortOrder.DESCENDING);
+        CompletableFuture<String> body = CFHttp.getCachedAsync(searchPath(query, sortField, sortOrder, index, pageSize),
+                onRefresh == null ? null : fresh -> onRefresh.accept(parsePage(fresh, index)));
+
+        CompletableFuture<SearchPage> page = body.thenApply(resp -> parsePage(resp, index));
+        page.whenComplete((p, e) ->
+        {
+            if (page.isCancelled()) body.cancel(true);
+        });
+        return page;
     }
 
-    public static List<Mod> searchMods(String query, SortField sortField, SortOrder sortOrder) throws Exception
+    // Equivalent queries map to the same path, so they share cache entries and in-flight requests.
+    private static String searchPath(String query, SortField sortField, SortOrder sortOrder, int index, int pageSize)
     {
         StringBuilder urlBuilder = new StringBuilder("mods/search?gameId=" + GAME_ID);
 
         if (query != null && !query.trim().isEmpty()) {
-            urlBuilder.append("&searchFilter=").append(URLEncoder.encode(query, StandardCharsets.UTF_8));
+            urlBuilder.append("&searchFilter=").append(URLEncoder.encode(query.trim(), StandardCharsets.UTF_8));
         }
 
         urlBuilder.append("&sortField=").append(sortField.getValue());
         urlBuilder.append("&sortOrder=").append(sortOrder.getValue());
-        urlBuilder.append("&pageSize=50");
+        urlBuilder.append("&index=").append(index);
+        urlBuilder.append("&pageSize=").append(pageSize);
 
-        String url = urlBuilder.toString();
-        String resp = CFHttp.get(url).body();
-        ApiResponse<Mod[]> apiResp = gson.fromJson(resp, ApiResponseModArray.class);
+        return urlBuilder.toString();
+    }
 
-        return List.of(apiResp.data);
+    static SearchPage parsePage(String body, int index)
+    {
+        SearchResponse response = gson.fromJson(body, SearchResponse.class);
+        List<Mod> mods = response.data != null ? List.of(response.data) : List.of();
+        int total = response.pagination != null ? response.pagination.totalCount : index + mods.size();
+        return new SearchPage(mods, index, total);
     }
 
     public static Mod getMod(int modId) throws Exception
     {
         String url = "mods/" + modId;
-        String resp = CFHttp.get(url).body();
+        String resp = CFHttp.getCached(url, null);
         ApiResponse<Mod> apiResp = gson.fromJson(resp, ApiResponseMod.class);
         return apiResp.data;
     }
@@ -112,11 +133,42 @@ public class CurseForgeAPI
     public static List<ModFile> getModFiles(int modId) throws Exception
     {
         String url = "mods/" + modId + "/files";
-        String resp = CFHttp.get(url).body();
+        String resp = CFHttp.getCached(url, null);
         ApiResponse<ModFile[]> apiResp = gson.fromJson(resp, ApiResponseModFileArray.class);
         return List.of(apiResp.data);
     }
 
+    // Bulk lookup, one request for up to a few hundred mods. Mods unknown to CurseForge are simply absent.
+    public static List<Mod> getMods(Collection<Integer> modIds) throws Exception
+    {
+        JsonObject body = new JsonObject();
+        JsonArray ids = new JsonArray();
+        modIds.forEach(ids::add);
+        body.add("modIds", ids);
+
+        HttpResponse<String> response = CFHttp.post("mods", gson.toJson(body));
+        if (response.statusCode() != 200) {
+            throw new IOException("CurseForge returned HTTP " + response.statusCode() + " for bulk mod lookup");
+        }
+
+        Mod[] mods = gson.fromJson(response.body(), ApiResponseModArray.class).data;
+        return mods != null ? List.of(mods) : List.of();
+    }
+
+    // Newest file among the ones CurseForge returns inline with the mod, or null if it returned none.
+    public static ModFile latestFileOf(Mod mod)
+    {
+        if (mod.latestFiles == null) return null;
+
+        ModFile latest = null;
+        for (ModFile f : mod.latestFiles) {
+            if (f.fileDate != null && (latest == null || f.fileDate.getTime() > latest.fileDate.getTime())) {
+                latest = f;
+            }
+        }
+        return latest;
+    }
+
     public static ModFile getLatestFile(int modId) throws Exception
     {
         List<ModFile> files = getModFiles(modId);
@@ -140,6 +192,32 @@ public class CurseForgeAPI
 
     private static class ApiResponseMod extends ApiResponse<Mod> {}
     private static class ApiResponseModArray extends ApiResponse<Mod[]> {}
+
+    private static class SearchResponse extends ApiResponse<Mod[]> {
+        Pagination pagination;
+    }
+
+    private static class Pagination
+    {
+        int index;
+        int pageSize;
+        int resultCount;
+        int totalCount;
+    }
+
+    public static class SearchPage
+    {
+        public final List<Mod> mods;
+        public final int index;
+        public final int totalCount;
+
+        SearchPage(List<Mod> mods, int index, int totalCount)
+        {
+            this.mods = mods;
+            this.index = index;
+            this.totalCount = totalCount;
+        }
+    }
     private static class ApiResponseModFileArray extends ApiResponse<ModFile[]> {}
 
     public static class Mod
@@ -160,6 +238,7 @@ public class CurseForgeAPI
         public String dateModified;
         public Logo logo;
         public List<Screenshot> screenshots;
+        public List<ModFile> latestFiles;
     }
 
     public static class Logo
@@ -206,5 +285,28 @@ public class CurseForgeAPI
         public java.util.Date fileDate;
         public long fileLength;
         public String[] gameVersions;
+        public FileHash[] hashes;
+
+        public Checksum checksum()
+        {
+            if (hashes == null) return null;
+
+            for (FileHash hash : hashes) {
+                if (hash.algo == FileHash.SHA1 && hash.value != null) return Checksum.sha1(hash.value);
+            }
+            for (FileHash hash : hashes) {
+                if (hash.algo == FileHash.MD5 && hash.value != null) return Checksum.md5(hash.value);
+            }
+            return null;
+        }
+    }
+
+    public static class FileHash
+    {
+        static final int SHA1 = 1;
+        static final int MD5 = 2;
+
+        public String value;
+        public int algo;
     }
 }
\ No newline at end of file
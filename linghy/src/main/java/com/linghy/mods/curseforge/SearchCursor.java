@@ -0,0 +1,119 @@
+package com.linghy.mods.curseforge;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+// Walks the result pages of one search. Each page is requested once; prefetch() lets the UI start
+// the next page early so appending it when the user reaches the end of the list costs nothing.
+public class SearchCursor
+{
+    public static final int PAGE_SIZE = 50;
+
+    // CurseForge rejects requests where index + pageSize goes beyond this.
+    private static final int MAX_RESULTS = 10_000;
+
+    private final String query;
+    private final CurseForgeAPI.SortField sortField;
+    private final CurseForgeAPI.SortOrder sortOrder;
+    private final Consumer<List<CurseForgeAPI.Mod>> onFirstPageRefresh;
+
+    private int nextIndex;
+    private int totalCount = -1;
+    private CompletableFuture<CurseForgeAPI.SearchPage> prefetched;
+    private final Set<CompletableFuture<?>> outstanding = new HashSet<>();
+    private volatile boolean cancelled;
+
+    // onFirstPageRefresh (may be null) receives a newer first page if the first one came from a stale cache.
+    public SearchCursor(String query, CurseForgeAPI.SortField sortField, CurseForgeAPI.SortOrder sortOrder,
+                        Consumer<List<CurseForgeAPI.Mod>> onFirstPageRefresh)
+    {
+        this.query = query;
+        this.sortField = sortField;
+        this.sortOrder = sortOrder;
+        this.onFirstPageRefresh = onFirstPageRefresh;
+    }
+
+    public synchronized boolean hasMore() {
+        return !cancelled && (prefetched != null || nextIndex < limit());
+    }
+
+    // Total results reported by CurseForge, or -1 before the first page arrived.
+    public synchronized int getTotalCount() {
+        return totalCount;
+    }
+
+    public synchronized void prefetch()
+    {
+        if (prefetched == null && !cancelled && nextIndex < limit()) {
+            prefetched = fetch(nextIndex);
+            nextIndex += PAGE_SIZE;
+        }
+    }
+
+    // Resolves to the next page's mods, or an empty list when there are no more. Fails with
+    // CancellationException once the cursor was cancelled.
+    public synchronized CompletableFuture<List<CurseForgeAPI.Mod>> next()
+    {
+        prefetch();
+        if (prefetched == null) return CompletableFuture.completedFuture(List.of());
+
+        CompletableFuture<CurseForgeAPI.SearchPage> page = prefetched;
+        prefetched = null;
+
+        return page.thenApply(p ->
+        {
+            if (cancelled) throw new CancellationException();
+            return p.mods;
+        });
+    }
+
+    // Requests still in flight are cancelled, so a superseded search stops using the network.
+    public synchronized void cancel()
+    {
+        cancelled = true;
+        prefetched = null;
+
+        for (CompletableFuture<?> request : List.copyOf(outstanding)) {
+            request.cancel(true);
+        }
+        outstanding.clear();
+    }
+
+    private int limit() {
+        return totalCount < 0 ? PAGE_SIZE : Math.min(totalCount, MAX_RESULTS);
+    }
+
+    private CompletableFuture<CurseForgeAPI.SearchPage> fetch(int index)
+    {
+        int pageSize = Math.min(PAGE_SIZE, MAX_RESULTS - index);
+
+        CompletableFuture<CurseForgeAPI.SearchPage> request = CurseForgeAPI.searchPageAsync(
+                query, sortField, sortOrder, index, pageSize,
+                index == 0 && onFirstPageRefresh != null
+                        ? fresh -> { if (!cancelled) onFirstPageRefresh.accept(fresh.mods); }
+                        : null);
+
+        outstanding.add(request);
+        request.whenComplete((page, error) ->
+        {
+            synchronized (this) {
+                outstanding.remove(request);
+            }
+        });
+
+        return request.thenApply(page ->
+        {
+            synchronized (this)
+            {
+                totalCount = page.mods.size() < pageSize
+                        ? Math.min(page.totalCount, index + page.mods.size())
+                        : page.totalCount;
+            }
+            return page;
+        });
+    }
+}
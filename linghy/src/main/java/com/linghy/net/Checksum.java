@@ -0,0 +1,65 @@
+package com.linghy.net;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+public final class Checksum
+{
+    public static final String SHA_256 = "SHA-256";
+
+    public final String algorithm;
+    public final String expected;
+
+    public Checksum(String algorithm, String expected)
+    {
+        this.algorithm = algorithm;
+        this.expected = expected;
+    }
+
+    public static Checksum sha256(String hex) {
+        return new Checksum(SHA_256, hex);
+    }
+
+    public static Checksum sha1(String hex) {
+        return new Checksum("SHA-1", hex);
+    }
+
+    public static Checksum md5(String hex) {
+        return new Checksum("MD5", hex);
+    }
+
+    public MessageDigest newDigest() {
+        return newDigest(algorithm);
+    }
+
+    public static MessageDigest newDigest(String algorithm)
+    {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(algorithm + " not supported", e);
+        }
+    }
+
+    public boolean matches(byte[] actual) {
+        return actual != null && HexFormat.of().formatHex(actual).equalsIgnoreCase(expected);
+    }
+
+    public void verify(byte[] actual, Path file) throws IOException
+    {
+        if (!matches(actual))
+        {
+            throw new IOException(algorithm + " mismatch for " + file.getFileName()
+                    + ": expected " + expected
+                    + ", got " + (actual != null ? HexFormat.of().formatHex(actual) : "nothing"));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return algorithm + ":" + expected;
+    }
+}
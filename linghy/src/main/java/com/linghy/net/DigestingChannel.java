@@ -0,0 +1,209 @@
+package com.linghy.net;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Positional writes into a file channel that feed a digest on the way through.
+// Only bytes written exactly at the digest frontier are hashed from the caller's buffer. Everything that lands
+// ahead of it (the other segments of a parallel download, the completed part of a resumed one) is read back
+// from the file once the gap before it closes, so with N segments roughly (N-1)/N of the file is read a second
+// time, usually from the page cache. Those reads run on a hashing thread that trails the frontier, never on a
+// writer and never while the monitor is held, so writers only wait for the bookkeeping.
+public class DigestingChannel
+{
+    private static final int CATCH_UP_BUFFER_SIZE = 1024 * 1024;
+
+    private final FileChannel channel;
+    private final MessageDigest digest;
+    private final TreeMap<Long, Long> pending = new TreeMap<>();
+    private long digested;
+    // Set while a writer or the hashing thread owns the digest; only the owner may update it.
+    private boolean hashing;
+    private boolean catchingUp;
+    private IOException failure;
+    private ByteBuffer catchUpBuffer;
+
+    public DigestingChannel(FileChannel channel, MessageDigest digest)
+    {
+        this.channel = channel;
+        this.digest = digest;
+    }
+
+    public int write(ByteBuffer src, long position) throws IOException
+    {
+        ByteBuffer view = src.duplicate();
+        int written = 0;
+
+        while (src.hasRemaining()) {
+            written += channel.write(src, position + written);
+        }
+
+        if (digest != null && written > 0)
+        {
+            view.limit(view.position() + written);
+            record(view, position, written);
+        }
+
+        return written;
+    }
+
+    // Marks bytes already on disk, e.g. the completed part of a resumed download.
+    public synchronized void alreadyWritten(long start, long end) throws IOException
+    {
+        if (digest == null || end <= start) return;
+
+        addPending(Math.max(start, digested), end);
+        scheduleCatchUp();
+    }
+
+    public synchronized byte[] finish(long total) throws IOException
+    {
+        if (digest == null) return null;
+
+        try {
+            while (failure == null && (hashing || catchingUp)) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while hashing", e);
+        }
+
+        if (failure != null) throw failure;
+        if (digested != total) {
+            throw new IOException("Digest covers " + digested + " of " + total + " bytes");
+        }
+
+        return digest.digest();
+    }
+
+    private void record(ByteBuffer bytes, long position, int length) throws IOException
+    {
+        long end = position + length;
+
+        synchronized (this)
+        {
+            if (failure != null) throw failure;
+
+            if (position != digested || hashing)
+            {
+                // Bytes behind the frontier were hashed already; a retried segment may overlap it.
+                if (end > digested) addPending(Math.max(position, digested), end);
+                scheduleCatchUp();
+                return;
+            }
+            hashing = true;
+        }
+
+        digest.update(bytes);
+
+        synchronized (this)
+        {
+            digested = end;
+            hashing = false;
+            scheduleCatchUp();
+            notifyAll();
+        }
+    }
+
+    private void addPending(long start, long end)
+    {
+        Map.Entry<Long, Long> before = pending.floorEntry(start);
+        if (before != null && before.getValue() >= start)
+        {
+            start = before.getKey();
+            end = Math.max(end, before.getValue());
+            pending.remove(start);
+        }
+
+        Map.Entry<Long, Long> after;
+        while ((after = pending.ceilingEntry(start)) != null && after.getKey() <= end)
+        {
+            pending.remove(after.getKey());
+            end = Math.max(end, after.getValue());
+        }
+        pending.put(start, end);
+    }
+
+    // Starts the hashing thread when a pending range touches the frontier and nobody holds the digest.
+    private void scheduleCatchUp()
+    {
+        if (catchingUp || hashing || !catchUpReady()) return;
+
+        catchingUp = true;
+        Thread hasher = new Thread(this::catchUp, "linghy-digest");
+        hasher.setDaemon(true);
+        hasher.start();
+    }
+
+    private boolean catchUpReady()
+    {
+        Map.Entry<Long, Long> next;
+        while ((next = pending.firstEntry()) != null && next.getValue() <= digested) {
+            pending.pollFirstEntry();
+        }
+        return next != null && next.getKey() <= digested;
+    }
+
+    private void catchUp()
+    {
+        while (true)
+        {
+            long start;
+            long end;
+            synchronized (this)
+            {
+                if (failure != null || hashing || !catchUpReady())
+                {
+                    catchingUp = false;
+                    notifyAll();
+                    return;
+                }
+                end = pending.pollFirstEntry().getValue();
+                start = digested;
+                hashing = true;
+            }
+
+            long position = start;
+            IOException error = null;
+            try {
+                position = hashFromDisk(start, end);
+            } catch (IOException e) {
+                error = e;
+            }
+
+            synchronized (this)
+            {
+                digested = position;
+                hashing = false;
+                if (error != null) failure = error;
+                notifyAll();
+            }
+        }
+    }
+
+    private long hashFromDisk(long position, long end) throws IOException
+    {
+        if (catchUpBuffer == null) {
+            catchUpBuffer = ByteBuffer.allocateDirect(CATCH_UP_BUFFER_SIZE);
+        }
+
+        while (position < end)
+        {
+            catchUpBuffer.clear().limit((int) Math.min(CATCH_UP_BUFFER_SIZE, end - position));
+            int read = channel.read(catchUpBuffer, position);
+            if (read <= 0) {
+                throw new IOException("Unexpected end of file at " + position);
+            }
+
+            catchUpBuffer.flip();
+            digest.update(catchUpBuffer);
+            position += read;
+        }
+        return position;
+    }
+}
@@ -0,0 +1,75 @@
+package com.linghy.net;
+
+import com.google.gson.Gson;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+
+public class DownloadState
+{
+    public static final String SIDECAR_EXTENSION = ".state";
+
+    private static final Gson gson = new Gson();
+
+    String url;
+    String etag;
+    String lastModified;
+    long total;
+    List<long[]> segments = new ArrayList<>();
+
+    public static Path sidecarFor(Path partialFile) {
+        return partialFile.resolveSibling(partialFile.getFileName() + SIDECAR_EXTENSION);
+    }
+
+    public static DownloadState load(Path partialFile)
+    {
+        Path sidecar = sidecarFor(partialFile);
+        if (!Files.exists(sidecar) || !Files.exists(partialFile)) return null;
+
+        try {
+            DownloadState state = gson.fromJson(Files.readString(sidecar), DownloadState.class);
+            if (state == null || state.segments == null || state.total <= 0) return null;
+            if (Files.size(partialFile) != state.total) return null;
+            return state;
+        } catch (Exception e) {
+            System.err.println("Ignoring unreadable download state " + sidecar + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    public static void discard(Path partialFile) throws IOException
+    {
+        Files.deleteIfExists(sidecarFor(partialFile));
+        Files.deleteIfExists(partialFile);
+    }
+
+    public void save(Path partialFile) throws IOException
+    {
+        Path sidecar = sidecarFor(partialFile);
+        Path temp = sidecar.resolveSibling(sidecar.getFileName() + ".new");
+        Files.writeString(temp, gson.toJson(this));
+        Files.move(temp, sidecar, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public String validator() {
+        return etag != null ? etag : lastModified;
+    }
+
+    public boolean matches(String url, long total, String etag, String lastModified)
+    {
+        if (!url.equals(this.url) || total != this.total) return false;
+        if (this.etag != null) return this.etag.equals(etag);
+        return this.lastModified != null && this.lastModified.equals(lastModified);
+    }
+
+    public long completedBytes()
+    {
+        long done = 0;
+        for (long[] s : segments) {
+            done += s[2] - s[0];
+        }
+        return done;
+    }
+}
@@ -0,0 +1,33 @@
+package com.linghy.net;
+
+// Every host the launcher talks to. For offline and performance testing they can be redirected, either all
+// at once to a server that mirrors the real paths (such as linghy-bench's FakeServers) or one by one:
+//   -Dlinghy.endpoints=http://127.0.0.1:8080
+//   -Dlinghy.endpoint.patches=http://127.0.0.1:8080/patches
+public final class Endpoints
+{
+    private static final String ALL = System.getProperty("linghy.endpoints");
+
+    public static final String PATCHES = resolve("patches", "https://game-patches.hytale.com", "/patches");
+    public static final String JRE_MANIFEST = resolve("jre", "https://launcher.hytale.com", "/version/release/jre.json");
+    public static final String BUTLER = resolve("butler", "https://broth.itch.zone", "/butler");
+    public static final String CURSEFORGE = resolve("curseforge", "https://api.curseforge.com", "/v1");
+    public static final String CURSEFORGE_KEY = resolve("curseforge.key", "https://raw.githubusercontent.com",
+            "/0xcds4r/LingHy-Launcher/main/keys/cf.key");
+    public static final String NEWS = resolve("news", "https://hytale.com", "/news");
+
+    private Endpoints() {}
+
+    private static String resolve(String name, String host, String path)
+    {
+        String url = System.getProperty("linghy.endpoint." + name);
+        if (url == null) {
+            url = (ALL != null ? ALL : host) + path;
+        }
+
+        if (!url.equals(host + path)) {
+            System.out.println("Endpoint " + name + " redirected to " + url);
+        }
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
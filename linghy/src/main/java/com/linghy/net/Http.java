@@ -0,0 +1,223 @@
+package com.linghy.net;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public final class Http
+{
+    public static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    public static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    public static final String USER_AGENT = "Linghy/1.0";
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long BACKOFF_BASE_MS = 500;
+    private static final Set<Integer> RETRYABLE_STATUS = Set.of(429, 502, 503, 504);
+
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory()
+    {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r)
+        {
+            Thread t = new Thread(r, "linghy-net-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    });
+
+    private static final HttpClient CLIENT = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(CONNECT_TIMEOUT)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .executor(EXECUTOR)
+            .build();
+
+    // HTTP/2 would multiplex every segment of a large download over one TCP connection,
+    // so bulk transfers get their own HTTP/1.1 pool sharing the same executor.
+    private static final HttpClient BULK_CLIENT = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(CONNECT_TIMEOUT)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .executor(EXECUTOR)
+            .build();
+
+    private Http() {}
+
+    public static HttpClient client() {
+        return CLIENT;
+    }
+
+    public static HttpClient bulkClient() {
+        return BULK_CLIENT;
+    }
+
+    public static ExecutorService executor() {
+        return EXECUTOR;
+    }
+
+    public static HttpRequest.Builder request(String url)
+    {
+        return HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .timeout(REQUEST_TIMEOUT)
+                .header("User-Agent", USER_AGENT);
+    }
+
+    public static <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler)
+            throws IOException, InterruptedException
+    {
+        return send(CLIENT, request, handler);
+    }
+
+    public static <T> HttpResponse<T> send(HttpClient client, HttpRequest request,
+                                           HttpResponse.BodyHandler<T> handler)
+            throws IOException, InterruptedException
+    {
+        boolean idempotent = isIdempotent(request);
+        IOException lastError = null;
+
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++)
+        {
+            if (attempt > 1) {
+                Thread.sleep(backoff(attempt));
+            }
+
+            try {
+                HttpResponse<T> response = client.send(request, handler);
+
+                if (idempotent && attempt < MAX_ATTEMPTS && RETRYABLE_STATUS.contains(response.statusCode()))
+                {
+                    discardBody(response);
+                    continue;
+                }
+
+                return response;
+            } catch (IOException e) {
+                lastError = e;
+                if (!idempotent) break;
+            }
+        }
+
+        throw lastError;
+    }
+
+    // Cancelling the returned future aborts whichever attempt is in flight.
+    public static <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request,
+                                                                   HttpResponse.BodyHandler<T> handler)
+    {
+        CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<?>> current = new AtomicReference<>();
+
+        result.whenComplete((response, error) ->
+        {
+            CompletableFuture<?> call = current.get();
+            if (result.isCancelled() && call != null) call.cancel(true);
+        });
+
+        sendAsync(request, handler, 1, result, current);
+        return result;
+    }
+
+    private static <T> void sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler, int attempt,
+                                      CompletableFuture<HttpResponse<T>> result,
+                                      AtomicReference<CompletableFuture<?>> current)
+    {
+        if (result.isDone()) return;
+
+        boolean canRetry = isIdempotent(request) && attempt < MAX_ATTEMPTS;
+        CompletableFuture<HttpResponse<T>> call = CLIENT.sendAsync(request, handler);
+        current.set(call);
+        if (result.isCancelled()) call.cancel(true);
+
+        call.whenComplete((response, error) ->
+        {
+            boolean retry = canRetry && !result.isDone() && (error != null
+                    ? unwrap(error) instanceof IOException
+                    : RETRYABLE_STATUS.contains(response.statusCode()));
+
+            if (!retry)
+            {
+                if (error != null) {
+                    result.completeExceptionally(unwrap(error));
+                } else {
+                    result.complete(response);
+                }
+                return;
+            }
+
+            if (response != null) {
+                discardBody(response);
+            }
+
+            CompletableFuture.delayedExecutor(backoff(attempt + 1), TimeUnit.MILLISECONDS, EXECUTOR)
+                    .execute(() -> sendAsync(request, handler, attempt + 1, result, current));
+        });
+    }
+
+    public static String getString(String url) throws IOException, InterruptedException
+    {
+        HttpResponse<String> response = send(request(url).GET().build(), HttpResponse.BodyHandlers.ofString());
+        checkStatus(url, response.statusCode());
+        return response.body();
+    }
+
+    public static byte[] getBytes(String url) throws IOException, InterruptedException
+    {
+        HttpResponse<byte[]> response = send(request(url).GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+        checkStatus(url, response.statusCode());
+        return response.body();
+    }
+
+    public static BufferedImage readImage(String url) throws IOException, InterruptedException {
+        return ImageIO.read(new ByteArrayInputStream(getBytes(url)));
+    }
+
+    public static void checkStatus(String url, int status) throws IOException
+    {
+        if (status < 200 || status >= 300) {
+            throw new IOException("Server returned HTTP " + status + " for " + url);
+        }
+    }
+
+    private static boolean isIdempotent(HttpRequest request)
+    {
+        String method = request.method();
+        return method.equals("GET") || method.equals("HEAD");
+    }
+
+    private static long backoff(int attempt) {
+        return BACKOFF_BASE_MS * (1L << (attempt - 2)) + ThreadLocalRandom.current().nextLong(BACKOFF_BASE_MS / 2);
+    }
+
+    private static Throwable unwrap(Throwable error)
+    {
+        while ((error instanceof CompletionException || error instanceof ExecutionException)
+                && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    private static void discardBody(HttpResponse<?> response)
+    {
+        if (response.body() instanceof InputStream in)
+        {
+            try {
+                in.close();
+            } catch (IOException ignored) {}
+        }
+    }
+}
@@ -0,0 +1,481 @@
+package com.linghy.net;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SegmentedDownloader
+{
+    private static final int MAX_SEGMENTS = 6;
+    private static final long MIN_SEGMENT_SIZE = 16L * 1024 * 1024;
+    private static final int MAX_RETRIES = 4;
+    private static final int BUFFER_SIZE = 128 * 1024;
+    private static final long STATE_SAVE_INTERVAL_MS = 2000;
+
+    @FunctionalInterface
+    public interface ByteProgress {
+        void onProgress(long downloaded, long total, String speed);
+    }
+
+    public static class RemoteFile
+    {
+        public final long size;
+        public final boolean acceptsRanges;
+        public final String etag;
+        public final String lastModified;
+
+        RemoteFile(long size, boolean acceptsRanges, String etag, String lastModified)
+        {
+            this.size = size;
+            this.acceptsRanges = acceptsRanges;
+            this.etag = etag != null && !etag.startsWith("W/") ? etag : null;
+            this.lastModified = lastModified;
+        }
+
+        public boolean isResumable() {
+            return acceptsRanges && size > 0 && (etag != null || lastModified != null);
+        }
+
+        public boolean isSegmentable() {
+            return acceptsRanges && size >= MIN_SEGMENT_SIZE * 2;
+        }
+    }
+
+    private static class RemoteChangedException extends IOException
+    {
+        RemoteChangedException(String message) {
+            super(message);
+        }
+    }
+
+    private static class Segment
+    {
+        final int index;
+        final long start;
+        final long end;
+        volatile long position;
+        // The response being read, closed from outside to stop a blocked read when a sibling fails.
+        volatile InputStream body;
+
+        Segment(int index, long start, long end, long position)
+        {
+            this.index = index;
+            this.start = start;
+            this.end = end;
+            this.position = position;
+        }
+
+        boolean isComplete() {
+            return position > end;
+        }
+
+        void abort()
+        {
+            InputStream in = body;
+            if (in == null) return;
+
+            try {
+                in.close();
+            } catch (IOException ignored) {}
+        }
+    }
+
+    public static RemoteFile probe(String url) throws Exception
+    {
+        HttpRequest request = Http.request(url)
+                .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                .timeout(Duration.ofSeconds(10))
+                .build();
+
+        HttpResponse<Void> response = Http.send(Http.bulkClient(), request, HttpResponse.BodyHandlers.discarding());
+
+        if (response.statusCode() != 200) {
+            return new RemoteFile(-1, false, null, null);
+        }
+
+        var headers = response.headers();
+        long size = headers.firstValueAsLong("Content-Length").orElse(-1);
+        boolean ranges = headers.firstValue("Accept-Ranges")
+                .map(v -> v.toLowerCase().contains("bytes"))
+                .orElse(false);
+
+        return new RemoteFile(size, ranges,
+                headers.firstValue("ETag").orElse(null),
+                headers.firstValue("Last-Modified").orElse(null));
+    }
+
+    public static byte[] download(String url, Path dest, ByteProgress progress) throws Exception {
+        return download(url, dest, null, progress);
+    }
+
+    // Returns the digest of the downloaded content: the checksum's algorithm when one is given, SHA-256 otherwise.
+    public static byte[] download(String url, Path dest, Checksum checksum, ByteProgress progress) throws Exception
+    {
+        RemoteFile remote = probe(url);
+
+        if (!remote.isResumable())
+        {
+            DownloadState.discard(dest);
+            return verify(checksum, streamWhole(url, dest, checksum, progress), dest);
+        }
+
+        DownloadState state = DownloadState.load(dest);
+
+        if (state != null && !state.matches(url, remote.size, remote.etag, remote.lastModified))
+        {
+            System.out.println("Remote file changed, discarding partial download: " + dest.getFileName());
+            state = null;
+        }
+
+        if (state == null)
+        {
+            DownloadState.discard(dest);
+            state = newState(url, remote);
+        }
+        else
+        {
+            System.out.printf("Resuming %s at %.1f%%%n", dest.getFileName(),
+                    state.completedBytes() * 100.0 / state.total);
+        }
+
+        byte[] digest;
+        try {
+            digest = downloadSegments(dest, state, checksum, progress);
+        } catch (RemoteChangedException e) {
+            System.out.println(e.getMessage() + ", restarting download");
+            DownloadState.discard(dest);
+
+            // The first probe's validators describe the old file; sent again as If-Range they would fail the same way.
+            RemoteFile changed = probe(url);
+            if (!changed.isResumable()) {
+                return verify(checksum, streamWhole(url, dest, checksum, progress), dest);
+            }
+            digest = downloadSegments(dest, newState(url, changed), checksum, progress);
+        }
+
+        Files.deleteIfExists(DownloadState.sidecarFor(dest));
+        return verify(checksum, digest, dest);
+    }
+
+    private static byte[] verify(Checksum checksum, byte[] digest, Path dest) throws IOException
+    {
+        if (checksum == null) return digest;
+
+        try {
+            checksum.verify(digest, dest);
+            return digest;
+        } catch (IOException e) {
+            DownloadState.discard(dest);
+            throw e;
+        }
+    }
+
+    private static MessageDigest newDigest(Checksum checksum) {
+        return checksum != null ? checksum.newDigest() : Checksum.newDigest(Checksum.SHA_256);
+    }
+
+    private static DownloadState newState(String url, RemoteFile remote)
+    {
+        DownloadState state = new DownloadState();
+        state.url = url;
+        state.total = remote.size;
+        state.etag = remote.etag;
+        state.lastModified = remote.lastModified;
+
+        for (Segment segment : split(remote.size, remote.isSegmentable())) {
+            state.segments.add(new long[]{segment.start, segment.end, segment.position});
+        }
+
+        return state;
+    }
+
+    private static byte[] downloadSegments(Path dest, DownloadState state, Checksum checksum,
+                                           ByteProgress progress) throws Exception
+    {
+        List<Segment> segments = new ArrayList<>();
+        for (int i = 0; i < state.segments.size(); i++)
+        {
+            long[] s = state.segments.get(i);
+            segments.add(new Segment(i, s[0], s[1], s[2]));
+        }
+
+        long total = state.total;
+        long resumedFrom = state.completedBytes();
+        AtomicLong downloaded = new AtomicLong(resumedFrom);
+        AtomicBoolean aborted = new AtomicBoolean();
+        byte[] digest;
+
+        if (segments.size() > 1) {
+            System.out.println("Segmented download: " + segments.size() + " connections, " + total + " bytes");
+        }
+
+        try (RandomAccessFile raf = new RandomAccessFile(dest.toFile(), "rw"))
+        {
+            raf.setLength(total);
+            FileChannel channel = raf.getChannel();
+            DigestingChannel sink = new DigestingChannel(channel, newDigest(checksum));
+            state.save(dest);
+
+            for (Segment segment : segments) {
+                sink.alreadyWritten(segment.start, segment.position);
+            }
+
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (Segment segment : segments)
+            {
+                if (segment.isComplete()) continue;
+                futures.add(CompletableFuture.runAsync(() ->
+                        fetchSegment(state, sink, segment, downloaded, aborted), Http.executor()));
+            }
+
+            // allOf only completes once every segment has, so the first failure stops the others: they see the
+            // flag between reads, and their responses are closed to end any read that is blocked.
+            for (CompletableFuture<Void> future : futures)
+            {
+                future.whenComplete((result, error) ->
+                {
+                    if (error != null && !aborted.getAndSet(true)) {
+                        segments.forEach(Segment::abort);
+                    }
+                });
+            }
+
+            CompletableFuture<Void> all = CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+            long startTime = System.currentTimeMillis();
+            long lastSave = startTime;
+
+            while (true)
+            {
+                try {
+                    all.get(200, TimeUnit.MILLISECONDS);
+                    break;
+                } catch (TimeoutException e) {
+                    report(progress, downloaded.get(), resumedFrom, total, startTime);
+
+                    long now = System.currentTimeMillis();
+                    if (now - lastSave >= STATE_SAVE_INTERVAL_MS)
+                    {
+                        saveState(channel, dest, state, segments);
+                        lastSave = now;
+                    }
+                } catch (ExecutionException e) {
+                    aborted.set(true);
+                    saveState(channel, dest, state, segments);
+
+                    Throwable cause = e.getCause() instanceof CompletionException && e.getCause().getCause() != null
+                            ? e.getCause().getCause() : e.getCause();
+                    if (cause instanceof Exception ex) throw ex;
+                    throw e;
+                }
+            }
+
+            report(progress, downloaded.get(), resumedFrom, total, startTime);
+            channel.force(false);
+            digest = sink.finish(total);
+        }
+        finally {
+            aborted.set(true);
+        }
+
+        System.out.println();
+        return digest;
+    }
+
+    private static void saveState(FileChannel channel, Path dest, DownloadState state, List<Segment> segments)
+    {
+        try {
+            // Positions only advance after their bytes are written, so a snapshot taken before the force
+            // never claims data that is not on disk yet.
+            for (Segment segment : segments) {
+                state.segments.get(segment.index)[2] = segment.position;
+            }
+            channel.force(false);
+            state.save(dest);
+        } catch (IOException e) {
+            System.err.println("\nFailed to save download state: " + e.getMessage());
+        }
+    }
+
+    private static List<Segment> split(long total, boolean segmented)
+    {
+        int count = segmented
+                ? (int) Math.max(1, Math.min(MAX_SEGMENTS, total / MIN_SEGMENT_SIZE))
+                : 1;
+        long segmentSize = total / count;
+
+        List<Segment> segments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+        {
+            long start = i * segmentSize;
+            long end = (i == count - 1) ? total - 1 : start + segmentSize - 1;
+            segments.add(new Segment(i, start, end, start));
+        }
+
+        return segments;
+    }
+
+    private static void fetchSegment(DownloadState state, DigestingChannel sink, Segment segment,
+                                     AtomicLong downloaded, AtomicBoolean aborted)
+    {
+        IOException lastError = null;
+
+        for (int attempt = 1; attempt <= MAX_RETRIES && !segment.isComplete() && !aborted.get(); attempt++)
+        {
+            try {
+                if (attempt > 1)
+                {
+                    Thread.sleep(1000L * attempt);
+                    if (aborted.get()) return;
+                }
+
+                HttpRequest request = Http.request(state.url)
+                        .header("Range", "bytes=" + segment.position + "-" + segment.end)
+                        .header("If-Range", state.validator())
+                        .GET()
+                        .build();
+
+                HttpResponse<InputStream> response = Http.send(Http.bulkClient(), request,
+                        HttpResponse.BodyHandlers.ofInputStream());
+
+                if (response.statusCode() == 200)
+                {
+                    response.body().close();
+                    throw new RemoteChangedException("Remote file no longer matches " + state.validator());
+                }
+
+                if (response.statusCode() != 206)
+                {
+                    response.body().close();
+                    throw new IOException("Segment " + segment.index + ": server returned HTTP "
+                            + response.statusCode() + " for range request");
+                }
+
+                segment.body = response.body();
+                if (aborted.get()) segment.abort();
+
+                try (InputStream in = response.body())
+                {
+                    byte[] buffer = new byte[BUFFER_SIZE];
+                    ByteBuffer wrapped = ByteBuffer.wrap(buffer);
+                    int bytesRead;
+
+                    while (!segment.isComplete() && !aborted.get() && (bytesRead = in.read(buffer)) != -1)
+                    {
+                        int usable = (int) Math.min(bytesRead, segment.end - segment.position + 1);
+
+                        wrapped.clear().limit(usable);
+                        segment.position += sink.write(wrapped, segment.position);
+                        downloaded.addAndGet(usable);
+                    }
+                } finally {
+                    segment.body = null;
+                }
+
+                if (aborted.get()) return;
+
+                if (!segment.isComplete()) {
+                    throw new IOException("Segment " + segment.index + " ended early at " + segment.position);
+                }
+            } catch (RemoteChangedException e) {
+                throw new CompletionException(e);
+            } catch (IOException e) {
+                if (aborted.get()) return;
+
+                lastError = e;
+                System.err.println("\nSegment " + segment.index + " attempt " + attempt + " failed: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+        }
+
+        if (!segment.isComplete() && !aborted.get()) {
+            throw new CompletionException(new IOException("Segment " + segment.index
+                    + " failed after " + MAX_RETRIES + " attempts", lastError));
+        }
+    }
+
+    private static byte[] streamWhole(String url, Path dest, Checksum checksum,
+                                      ByteProgress progress) throws Exception
+    {
+        HttpRequest request = Http.request(url)
+                .GET()
+                .build();
+
+        HttpResponse<InputStream> response = Http.send(Http.bulkClient(), request,
+                HttpResponse.BodyHandlers.ofInputStream());
+
+        if (response.statusCode() != 200) {
+            response.body().close();
+            throw new IOException("Server returned HTTP " + response.statusCode());
+        }
+
+        long total = response.headers().firstValueAsLong("Content-Length").orElse(-1);
+        long downloaded = 0;
+        long startTime = System.currentTimeMillis();
+        long lastUpdate = startTime;
+        byte[] digest;
+
+        try (InputStream in = response.body();
+             FileChannel channel = FileChannel.open(dest, StandardOpenOption.CREATE,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            DigestingChannel sink = new DigestingChannel(channel, newDigest(checksum));
+            byte[] buffer = new byte[BUFFER_SIZE];
+            ByteBuffer wrapped = ByteBuffer.wrap(buffer);
+            int bytesRead;
+
+            while ((bytesRead = in.read(buffer)) != -1)
+            {
+                wrapped.clear().limit(bytesRead);
+                downloaded += sink.write(wrapped, downloaded);
+
+                long now = System.currentTimeMillis();
+                if (now - lastUpdate > 200)
+                {
+                    report(progress, downloaded, 0, total, startTime);
+                    lastUpdate = now;
+                }
+            }
+
+            if (total > 0 && downloaded != total) {
+                throw new IOException("Incomplete download: got " + downloaded + " of " + total + " bytes");
+            }
+
+            digest = sink.finish(downloaded);
+        }
+
+        report(progress, downloaded, 0, total, startTime);
+        System.out.println();
+        return digest;
+    }
+
+    private static void report(ByteProgress progress, long downloaded, long resumedFrom,
+                               long total, long startTime)
+    {
+        double elapsed = (System.currentTimeMillis() - startTime) / 1000.0;
+        String speed = elapsed > 0
+                ? String.format("%.2f MB/s", (downloaded - resumedFrom) / 1024.0 / 1024.0 / elapsed)
+                : "";
+
+        progress.onProgress(downloaded, total, speed);
+
+        if (total > 0) {
+            System.out.printf("\r%.1f%% downloaded (%s)", downloaded * 100.0 / total, speed);
+        }
+    }
+}
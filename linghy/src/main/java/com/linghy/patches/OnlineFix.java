@@ -105,7 +105,7 @@ public class OnlineFix
         }
     }
 
-    private static long findPattern(Path file) throws IOException
+    static long findPattern(Path file) throws IOException
     {
         try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r"))
         {
@@ -1,57 +1,276 @@
 package com.linghy.pwr;
 
 import com.linghy.butler.ButlerInstaller;
+import com.linghy.cache.ArtifactCache;
 import com.linghy.env.Environment;
 import com.linghy.model.ProgressCallback;
 import com.linghy.model.ProgressUpdate;
 import com.linghy.version.GameVersion;
+import com.linghy.version.VersionManager;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.ClosedByInterruptException;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
 
 public class GameInstaller
 {
+    // What the download phase produced, handed to the apply phase once butler is available too.
+    public static class PreparedInstall
+    {
+        final GameVersion version;
+        final Path gameDir;
+        final boolean installed;
+        final PatchChain chain;
+        final List<Path> deltas;
+        final Path fullPatch;
+
+        PreparedInstall(GameVersion version, Path gameDir, boolean installed,
+                        PatchChain chain, List<Path> deltas, Path fullPatch)
+        {
+            this.version = version;
+            this.gameDir = gameDir;
+            this.installed = installed;
+            this.chain = chain;
+            this.deltas = deltas;
+            this.fullPatch = fullPatch;
+        }
+
+        public boolean isInstalled() {
+            return installed;
+        }
+    }
+
     public static Path installGameVersion(GameVersion version, ProgressCallback callback) throws Exception
     {
-        int patchNumber = version.getPatchNumber();
-        String branch = version.getBranch();
+        PreparedInstall prepared = downloadGameVersion(version, callback);
+        if (prepared.installed) return prepared.gameDir;
 
-        String dirName = branch.equals("pre-release")
-                ? "patch-pre-" + patchNumber
-                : "patch-" + patchNumber;
+        return applyGameVersion(prepared, ButlerInstaller.installButler(callback), callback);
+    }
 
-        Path gameDir = Environment.getDefaultAppDir()
-                .resolve("release").resolve("package")
-                .resolve("game").resolve(dirName);
+    public static boolean isGameVersionInstalled(GameVersion version) {
+        return Files.exists(clientPath(getGameDir(version)));
+    }
 
-        String gameClient = Environment.getOS().equals("windows")
-                ? "HytaleClient.exe" : "HytaleClient";
-        Path clientPath = gameDir.resolve("Client").resolve(gameClient);
+    public static PreparedInstall downloadGameVersion(GameVersion version, ProgressCallback callback) throws Exception
+    {
+        Path gameDir = getGameDir(version);
 
-        if (Files.exists(clientPath))
+        if (Files.exists(clientPath(gameDir)))
         {
             System.out.println("Version " + version.getName() + " already installed");
             callback.onProgress(new ProgressUpdate("game", 100,
                     "Version already installed", "", "", 0, 0));
-            return gameDir;
+            return new PreparedInstall(version, gameDir, true, null, null, null);
+        }
+
+        PatchChain chain = PatchChain.find(version, new VersionManager(), callback);
+        if (chain != null)
+        {
+            try {
+                return new PreparedInstall(version, gameDir, false, chain, downloadChain(chain, callback), null);
+            } catch (Exception e) {
+                rethrowIfInterrupted(e);
+                System.err.println("Delta download failed, falling back to full patch: " + e.getMessage());
+            }
+        }
+
+        return new PreparedInstall(version, gameDir, false, null, null, downloadFullPatch(version, callback));
+    }
+
+    public static Path applyGameVersion(PreparedInstall prepared, Path butlerPath,
+                                        ProgressCallback callback) throws Exception
+    {
+        GameVersion version = prepared.version;
+        if (prepared.installed) return prepared.gameDir;
+
+        if (prepared.chain != null)
+        {
+            try {
+                applyChain(version, prepared.chain, prepared.deltas, prepared.gameDir, butlerPath, callback);
+                return prepared.gameDir;
+            } catch (Exception e) {
+                rethrowIfInterrupted(e);
+                System.err.println("Delta update failed, falling back to full patch: " + e.getMessage());
+            }
+        }
+
+        Path pwrPath = prepared.fullPatch;
+        ProgressCallback install = callback;
+        if (pwrPath == null)
+        {
+            // The caller already sits past the download range; squeeze the late download into the install one.
+            pwrPath = downloadFullPatch(version, remap(callback, 0, 40, 50, 75));
+            install = remap(callback, 50, 100, 75, 100);
+        }
+
+        install.onProgress(new ProgressUpdate("game", 50,
+                "Installing " + version.getName() + "...", "", "", 0, 0));
+
+        applyPWRToDirectory(pwrPath, prepared.gameDir, butlerPath, install, "Game installed successfully");
+
+        return prepared.gameDir;
+    }
+
+    // A cancelled install must stop, not fall back to a multi-gigabyte full patch download.
+    private static void rethrowIfInterrupted(Exception e) throws Exception
+    {
+        if (Thread.currentThread().isInterrupted()) throw e;
+
+        for (Throwable cause = e; cause != null; cause = cause.getCause())
+        {
+            if (cause instanceof InterruptedException || cause instanceof InterruptedIOException
+                    || cause instanceof ClosedByInterruptException)
+            {
+                Thread.currentThread().interrupt();
+                throw e;
+            }
         }
+    }
+
+    // Maps progress reported in [inFrom, inTo] onto [outFrom, outTo].
+    private static ProgressCallback remap(ProgressCallback callback, double inFrom, double inTo,
+                                          double outFrom, double outTo)
+    {
+        return update -> callback.onProgress(new ProgressUpdate(update.getStage(),
+                outFrom + (update.getProgress() - inFrom) * (outTo - outFrom) / (inTo - inFrom),
+                update.getMessage(), update.getCurrentFile(), update.getSpeed(),
+                update.getDownloaded(), update.getTotal()));
+    }
+
+    private static Path getGameDir(GameVersion version)
+    {
+        int patchNumber = version.getPatchNumber();
+        String dirName = version.getBranch().equals("pre-release")
+                ? "patch-pre-" + patchNumber
+                : "patch-" + patchNumber;
 
+        return Environment.getDefaultAppDir()
+                .resolve("release").resolve("package")
+                .resolve("game").resolve(dirName);
+    }
+
+    private static Path clientPath(Path gameDir)
+    {
+        String gameClient = Environment.getOS().equals("windows")
+                ? "HytaleClient.exe" : "HytaleClient";
+        return gameDir.resolve("Client").resolve(gameClient);
+    }
+
+    private static Path downloadFullPatch(GameVersion version, ProgressCallback callback) throws Exception
+    {
         callback.onProgress(new ProgressUpdate("game", 0,
                 "Download " + version.getName() + "...", version.getFileName(), "", 0, 0));
 
-        Path pwrPath = PWRDownloader.downloadPWRFromUrl(
+        return PWRDownloader.downloadPWRFromUrl(
                 version.getDownloadUrl(),
                 version.getFileName(),
                 callback
         );
+    }
 
-        callback.onProgress(new ProgressUpdate("game", 50,
-                "Installing " + version.getName() + "...", "", "", 0, 0));
+    private static List<Path> downloadChain(PatchChain chain, ProgressCallback callback) throws Exception
+    {
+        System.out.println("Updating from installed patch " + chain.base + " via "
+                + chain.steps.size() + " delta(s), " + chain.totalSize + " bytes");
+
+        List<Path> patches = new ArrayList<>();
+        long done = 0;
+
+        for (PatchChain.Step step : chain.steps)
+        {
+            long offset = done;
+            patches.add(ArtifactCache.get().fetch(step.url, step.fileName(), null, (downloaded, total, speed) ->
+            {
+                double percent = (offset + downloaded) * 100.0 / chain.totalSize;
+                callback.onProgress(new ProgressUpdate("game", percent * 0.4,
+                        "Downloading update " + step.from + " -> " + step.to + "...",
+                        step.fileName(), speed, offset + downloaded, chain.totalSize));
+            }));
+            done += step.size;
+        }
+
+        return patches;
+    }
+
+    private static void applyChain(GameVersion version, PatchChain chain, List<Path> patches, Path gameDir,
+                                   Path butlerPath, ProgressCallback callback) throws Exception
+    {
+        Path workDir = gameDir.resolveSibling(gameDir.getFileName() + ".delta-temp");
+        deleteRecursively(workDir);
+
+        try {
+            callback.onProgress(new ProgressUpdate("game", 45,
+                    "Preparing patch " + chain.base + "...", "", "", 0, 0));
+            cloneDirectory(chain.baseDir, workDir);
+
+            // Each delta gets an equal share of 50-100, so only the finished chain reports completion.
+            int count = patches.size();
+            for (int i = 0; i < count; i++)
+            {
+                PatchChain.Step step = chain.steps.get(i);
+                applyPWRToDirectory(patches.get(i), workDir, butlerPath,
+                        remap(callback, 50, 100, 50 + 50.0 * i / count, 50 + 50.0 * (i + 1) / count),
+                        "Applied update " + step.from + " -> " + step.to);
+            }
+
+            deleteRecursively(gameDir);
+            Files.move(workDir, gameDir, StandardCopyOption.ATOMIC_MOVE);
+            callback.onProgress(new ProgressUpdate("game", 100,
+                    "Game installed successfully", "", "", 0, 0));
+        } catch (Exception e) {
+            deleteRecursively(workDir);
+            throw e;
+        }
+
+        System.out.println("Version " + version.getName() + " installed from patch " + chain.base);
+    }
+
+    // Copy-on-write where the filesystem supports it (btrfs/XFS reflinks, APFS clones), plain copy otherwise.
+    private static void cloneDirectory(Path source, Path target) throws IOException
+    {
+        String os = Environment.getOS();
+        List<String> command = switch (os)
+        {
+            case "linux" -> List.of("cp", "-a", "--reflink=auto", source.toString(), target.toString());
+            case "darwin" -> List.of("cp", "-c", "-R", source.toString(), target.toString());
+            default -> null;
+        };
+
+        if (command != null)
+        {
+            try {
+                Process process = new ProcessBuilder(command).inheritIO().start();
+                if (process.waitFor() == 0) return;
+            } catch (IOException e) {
+                System.err.println("cp failed, copying manually: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while cloning " + source, e);
+            }
+
+            deleteRecursively(target);
+        }
 
-        applyPWRToDirectory(pwrPath, gameDir, callback);
+        Files.walkFileTree(source, new SimpleFileVisitor<>()
+        {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(target.resolve(source.relativize(dir)));
+                return FileVisitResult.CONTINUE;
+            }
 
-        return gameDir;
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.copy(file, target.resolve(source.relativize(file)),
+                        StandardCopyOption.COPY_ATTRIBUTES, LinkOption.NOFOLLOW_LINKS);
+                return FileVisitResult.CONTINUE;
+            }
+        });
     }
 
     public static void installGame(String version, String fileName,
@@ -81,14 +300,13 @@ public class GameInstaller
         callback.onProgress(new ProgressUpdate("game", 50,
                 "Extracting game files...", "", "", 0, 0));
 
-        applyPWRToDirectory(pwrPath, gameLatest, callback);
+        applyPWRToDirectory(pwrPath, gameLatest, ButlerInstaller.installButler(callback), callback,
+                "Game installed successfully");
     }
 
-    private static void applyPWRToDirectory(Path pwrFile, Path targetDir,
-                                            ProgressCallback callback) throws Exception
+    private static void applyPWRToDirectory(Path pwrFile, Path targetDir, Path butlerPath,
+                                            ProgressCallback callback, String doneMessage) throws Exception
     {
-        Path butlerPath = ButlerInstaller.installButler(callback);
-
         Files.createDirectories(targetDir);
         Path stagingDir = targetDir.resolve("staging-temp");
         Files.createDirectories(stagingDir);
@@ -109,7 +327,14 @@ public class GameInstaller
                 "Applying game patch...", "", "", 0, 0));
 
         Process process = pb.start();
-        int exitCode = process.waitFor();
+        int exitCode;
+
+        try {
+            exitCode = process.waitFor();
+        } catch (InterruptedException e) {
+            process.destroy();
+            throw e;
+        }
 
         if (exitCode != 0) {
             throw new Exception("Butler apply failed with exit code: " + exitCode);
@@ -118,8 +343,7 @@ public class GameInstaller
         deleteRecursively(stagingDir);
 
         System.out.println("Game extracted successfully to: " + targetDir);
-        callback.onProgress(new ProgressUpdate("game", 100,
-                "Game installed successfully", "", "", 0, 0));
+        callback.onProgress(new ProgressUpdate("game", 100, doneMessage, "", "", 0, 0));
     }
 
     private static void deleteRecursively(Path path) throws IOException
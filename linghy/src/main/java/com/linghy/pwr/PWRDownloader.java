@@ -1,41 +1,45 @@
 package com.linghy.pwr;
 
+import com.linghy.cache.ArtifactCache;
 import com.linghy.env.Environment;
 import com.linghy.model.ProgressCallback;
 import com.linghy.model.ProgressUpdate;
+import com.linghy.net.Checksum;
+import com.linghy.net.Endpoints;
 
-import java.io.*;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.nio.file.*;
+import java.nio.file.Path;
 
 public class PWRDownloader
 {
     public static Path downloadPWRFromUrl(String url, String fileName,
                                           ProgressCallback callback) throws Exception
     {
-        Path cacheDir = Environment.getDefaultAppDir().resolve("cache");
-        Files.createDirectories(cacheDir);
-
-        Path dest = cacheDir.resolve(fileName);
-        Path tempDest = Paths.get(dest.toString() + ".tmp");
+        return downloadPWRFromUrl(url, fileName, null, callback);
+    }
 
-        Files.deleteIfExists(tempDest);
+    public static Path downloadPWRFromUrl(String url, String fileName, Checksum checksum,
+                                          ProgressCallback callback) throws Exception
+    {
+        ArtifactCache cache = ArtifactCache.get();
 
-        if (Files.exists(dest))
+        Path cached = cache.find(url, checksum);
+        if (cached != null)
         {
-            System.out.println("PWR file already cached: " + dest);
+            System.out.println("PWR file already cached: " + cached);
             callback.onProgress(new ProgressUpdate("game", 40,
                     "PWR file cached", fileName, "", 0, 0));
-            return dest;
+            return cached;
         }
 
         System.out.println("Downloading PWR file: " + url);
-        downloadFile(url, tempDest, callback);
+        Path dest = cache.fetch(url, fileName, checksum, (downloaded, total, speed) ->
+        {
+            if (total <= 0) return;
 
-        Files.move(tempDest, dest, StandardCopyOption.ATOMIC_MOVE);
+            double percent = downloaded * 100.0 / total;
+            callback.onProgress(new ProgressUpdate("game", percent * 0.4,
+                    "Downloading game files...", fileName, speed, downloaded, total));
+        });
 
         System.out.println("PWR downloaded to: " + dest);
         return dest;
@@ -44,72 +48,13 @@ public class PWRDownloader
     public static Path downloadPWR(String version, String fileName,
                                    ProgressCallback callback) throws Exception
     {
-        Path cacheDir = Environment.getDefaultAppDir().resolve("cache");
-        Files.createDirectories(cacheDir);
-
         String os = Environment.getOS();
         String arch = Environment.getArch();
 
         String url = String.format(
-                "https://game-patches.hytale.com/patches/%s/%s/%s/0/%s",
-                os, arch, version, fileName);
+                "%s/%s/%s/%s/0/%s",
+                Endpoints.PATCHES, os, arch, version, fileName);
 
         return downloadPWRFromUrl(url, fileName, callback);
     }
-
-    private static void downloadFile(String url, Path dest,
-                                     ProgressCallback callback) throws Exception
-    {
-        HttpClient client = HttpClient.newHttpClient();
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(url))
-                .GET()
-                .build();
-
-        HttpResponse<InputStream> response = client.send(request,
-                HttpResponse.BodyHandlers.ofInputStream());
-
-        if (response.statusCode() != 200) {
-            throw new IOException("Server returned HTTP " + response.statusCode());
-        }
-
-        long total = response.headers().firstValueAsLong("Content-Length").orElse(-1);
-        long downloaded = 0;
-        long startTime = System.currentTimeMillis();
-        long lastUpdate = startTime;
-
-        try (InputStream in = response.body();
-             OutputStream out = Files.newOutputStream(dest)) {
-
-            byte[] buffer = new byte[32768];
-            int bytesRead;
-
-            while ((bytesRead = in.read(buffer)) != -1) {
-                out.write(buffer, 0, bytesRead);
-                downloaded += bytesRead;
-
-                long now = System.currentTimeMillis();
-                if (now - lastUpdate > 200) {
-                    if (total > 0) {
-                        double percent = (downloaded * 100.0 / total);
-                        double elapsed = (now - startTime) / 1000.0;
-                        String speed = elapsed > 0
-                                ? String.format("%.2f MB/s", downloaded / 1024.0 / 1024.0 / elapsed)
-                                : "";
-
-                        double overallProgress = percent * 0.4;
-
-                        callback.onProgress(new ProgressUpdate("game", overallProgress,
-                                "Downloading game files...", dest.getFileName().toString(),
-                                speed, downloaded, total));
-
-                        System.out.printf("\r%.1f%% downloaded (%.2f MB/s)",
-                                percent, downloaded / 1024.0 / 1024.0 / elapsed);
-                    }
-                    lastUpdate = now;
-                }
-            }
-        }
-        System.out.println();
-    }
-}
\ No newline at end of file
+}
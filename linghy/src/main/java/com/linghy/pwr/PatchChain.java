@@ -0,0 +1,209 @@
+package com.linghy.pwr;
+
+import com.linghy.env.Environment;
+import com.linghy.model.ProgressCallback;
+import com.linghy.model.ProgressUpdate;
+import com.linghy.net.Http;
+import com.linghy.version.GameVersion;
+import com.linghy.version.VersionManager;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Cheapest sequence of delta patches leading from an installed version to a target.
+public class PatchChain
+{
+    private static final int MAX_BASES = 3;
+    private static final int MAX_STEPS = 10;
+    // All probes share this budget; edges still unanswered when it runs out count as unavailable, so a slow
+    // mirror costs at most this long before falling back to the full patch.
+    private static final long RESOLVE_TIMEOUT_MS = 8000;
+
+    public static class Step
+    {
+        public final int from;
+        public final int to;
+        public final String url;
+        public final long size;
+
+        Step(int from, int to, String url, long size)
+        {
+            this.from = from;
+            this.to = to;
+            this.url = url;
+            this.size = size;
+        }
+
+        public String fileName() {
+            return from + "-" + to + ".pwr";
+        }
+    }
+
+    public final int base;
+    public final Path baseDir;
+    public final List<Step> steps;
+    public final long totalSize;
+
+    private PatchChain(int base, Path baseDir, List<Step> steps)
+    {
+        this.base = base;
+        this.baseDir = baseDir;
+        this.steps = steps;
+        this.totalSize = steps.stream().mapToLong(s -> s.size).sum();
+    }
+
+    // Returns null when no installed version can be patched forward more cheaply than a full install.
+    public static PatchChain find(GameVersion target, VersionManager versionManager, ProgressCallback callback)
+    {
+        int to = target.getPatchNumber();
+        String branch = target.getBranch();
+
+        List<Integer> bases = new ArrayList<>();
+        for (GameVersion v : versionManager.getInstalledVersions())
+        {
+            int n = v.getPatchNumber();
+            if (branch.equals(v.getBranch()) && n < to && to - n <= MAX_STEPS
+                    && versionManager.isVersionInstalled(n, branch) && !bases.contains(n)) {
+                bases.add(n);
+            }
+        }
+
+        if (bases.isEmpty()) return null;
+
+        bases.sort(Comparator.reverseOrder());
+        if (bases.size() > MAX_BASES) {
+            bases = bases.subList(0, MAX_BASES);
+        }
+
+        callback.onProgress(new ProgressUpdate("game", 0,
+                "Resolving patch chain...", "", "", 0, 0));
+
+        String os = Environment.getOS();
+        String arch = Environment.getArch();
+
+        Set<Long> edgeKeys = new LinkedHashSet<>();
+        for (int b : bases)
+        {
+            edgeKeys.add(edgeKey(b, to));
+            for (int n = b; n < to; n++) {
+                edgeKeys.add(edgeKey(n, n + 1));
+            }
+        }
+
+        List<CompletableFuture<Step>> probes = new ArrayList<>();
+        for (long key : edgeKeys)
+        {
+            int from = (int) (key >> 32);
+            int next = (int) key;
+            probes.add(probe(from, next, VersionManager.patchUrl(os, arch, branch, from, next)));
+        }
+
+        Map<Integer, List<Step>> incoming = new HashMap<>();
+        for (Step step : awaitProbes(probes)) {
+            incoming.computeIfAbsent(step.to, k -> new ArrayList<>()).add(step);
+        }
+
+        // Versions only ever patch forward, so a single pass in ascending order is a shortest-path search.
+        int lowest = bases.get(bases.size() - 1);
+        Map<Integer, Long> cost = new HashMap<>();
+        Map<Integer, Step> via = new HashMap<>();
+        for (int b : bases) {
+            cost.put(b, 0L);
+        }
+
+        for (int n = lowest + 1; n <= to; n++)
+        {
+            for (Step step : incoming.getOrDefault(n, List.of()))
+            {
+                Long before = cost.get(step.from);
+                if (before == null) continue;
+
+                long total = before + step.size;
+                if (total < cost.getOrDefault(n, Long.MAX_VALUE))
+                {
+                    cost.put(n, total);
+                    via.put(n, step);
+                }
+            }
+        }
+
+        if (!via.containsKey(to)) return null;
+
+        LinkedList<Step> steps = new LinkedList<>();
+        int n = to;
+        while (via.containsKey(n))
+        {
+            Step step = via.get(n);
+            steps.addFirst(step);
+            n = step.from;
+        }
+
+        if (target.getSize() > 0 && cost.get(to) >= target.getSize()) {
+            return null;
+        }
+
+        return new PatchChain(n, versionManager.getVersionDirectory(n, branch), steps);
+    }
+
+    private static List<Step> awaitProbes(List<CompletableFuture<Step>> probes)
+    {
+        try {
+            CompletableFuture.allOf(probes.toArray(new CompletableFuture[0])).get(RESOLVE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            System.err.println("Patch chain probes timed out, using the edges found so far");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ignored) {
+            // Probes complete with null on failure.
+        }
+
+        List<Step> found = new ArrayList<>();
+        for (CompletableFuture<Step> probe : probes)
+        {
+            if (!probe.isDone())
+            {
+                probe.cancel(true);
+                continue;
+            }
+
+            Step step = probe.getNow(null);
+            if (step != null) found.add(step);
+        }
+        return found;
+    }
+
+    private static long edgeKey(int from, int to) {
+        return ((long) from << 32) | (to & 0xffffffffL);
+    }
+
+    private static CompletableFuture<Step> probe(int from, int to, String url)
+    {
+        HttpRequest request = Http.request(url)
+                .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                .timeout(Duration.ofSeconds(5))
+                .build();
+
+        CompletableFuture<HttpResponse<Void>> call = Http.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+        CompletableFuture<Step> step = call.handle((response, error) ->
+        {
+            if (error != null || response.statusCode() != 200) return null;
+
+            long size = response.headers().firstValueAsLong("Content-Length").orElse(-1);
+            return size > 0 ? new Step(from, to, url, size) : null;
+        });
+
+        // Cancelling the step also stops the request and any retries still pending.
+        step.whenComplete((result, error) ->
+        {
+            if (step.isCancelled()) call.cancel(true);
+        });
+        return step;
+    }
+}
@@ -14,7 +14,18 @@ public final class CryptoUtil
     private static final int ITERATIONS = 65536;
     private static final int KEY_LEN = 256;
 
+    private static volatile String publicKey;
+
     private static String loadPublicKey()
+    {
+        String cached = publicKey;
+        if (cached == null) {
+            publicKey = cached = readPublicKey();
+        }
+        return cached;
+    }
+
+    private static String readPublicKey()
     {
         Properties props = new Properties();
 
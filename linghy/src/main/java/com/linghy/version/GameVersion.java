@@ -9,6 +9,8 @@ public class GameVersion
     private final long size;
     private final boolean installed;
     private final String branch; // "release" or "pre-release"
+    private String etag;
+    private String lastModified;
 
     public GameVersion(String name, String fileName, String downloadUrl,
                        int patchNumber, long size, boolean installed, String branch)
@@ -56,6 +58,20 @@ public class GameVersion
         return branch;
     }
 
+    public String getEtag() {
+        return etag;
+    }
+
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    void setValidators(String etag, String lastModified)
+    {
+        this.etag = etag;
+        this.lastModified = lastModified;
+    }
+
     public boolean isPreRelease() {
         return "pre-release".equals(branch);
     }
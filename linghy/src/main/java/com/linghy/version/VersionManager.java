@@ -3,10 +3,10 @@ package com.linghy.version;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 import com.linghy.env.Environment;
+import com.linghy.net.Endpoints;
+import com.linghy.net.Http;
 
 import java.io.IOException;
-import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.file.Files;
@@ -14,16 +14,16 @@ import java.nio.file.Path;
 import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.function.Consumer;
 
 public class VersionManager
 {
-    private static final String PATCHES_BASE_URL = "https://game-patches.hytale.com/patches";
-    private static final int MAX_PATCH_SCAN = 100;
-    private static final int SCAN_THREADS = 10;
+    private static final int SCAN_CONCURRENCY = 10;
+    private static final int REVALIDATE_RECENT = 3;
+    private static final int GAP_TOLERANCE = 2;
 
     private final Path versionsFile;
     private final Path installedVersionsFile;
-    private final HttpClient httpClient;
     private final Gson gson;
 
     public VersionManager()
@@ -31,9 +31,6 @@ public class VersionManager
         Path appDir = Environment.getDefaultAppDir();
         this.versionsFile = appDir.resolve("available_versions.json");
         this.installedVersionsFile = appDir.resolve("installed_versions.json");
-        this.httpClient = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(5))
-                .build();
         this.gson = new Gson();
     }
 
@@ -42,86 +39,262 @@ public class VersionManager
         String os = Environment.getOS();
         String arch = Environment.getArch();
 
-        List<GameVersion> versions = new ArrayList<>();
-        ExecutorService executor = Executors.newFixedThreadPool(SCAN_THREADS);
-        List<Future<GameVersion>> futures = new ArrayList<>();
+        TreeMap<Integer, GameVersion> versions = new TreeMap<>();
+        for (GameVersion cached : loadCachedVersions(branch))
+        {
+            if (cached != null && branch.equals(cached.getBranch())) {
+                versions.put(cached.getPatchNumber(), cached);
+            }
+        }
 
         listener.onProgress(0, "Scanning " + branch + " versions...");
+        for (GameVersion cached : versions.descendingMap().values()) {
+            listener.onVersion(cached);
+        }
+
+        CompletionQueue results = new CompletionQueue();
 
-        for (int i = 0; i <= MAX_PATCH_SCAN; i++)
+        int revalidating = 0;
+        for (GameVersion known : versions.descendingMap().values())
         {
-            final int patchNumber = i;
-            futures.add(executor.submit(() -> checkPatchExists(os, arch, patchNumber, branch)));
+            if (revalidating++ >= REVALIDATE_RECENT) break;
+
+            int patchNumber = known.getPatchNumber();
+            results.track(revalidate(os, arch, known), current ->
+            {
+                if (current == null) {
+                    versions.remove(patchNumber);
+                } else {
+                    versions.put(patchNumber, current);
+                    listener.onVersion(current);
+                }
+            });
         }
 
-        int completed = 0;
-        for (Future<GameVersion> future : futures)
+        int lastKnown = versions.isEmpty() ? -1 : versions.lastKey();
+        int frontier = findFrontier(os, arch, branch, lastKnown, versions, results, listener);
+
+        listener.onProgress(60, "count: " + versions.size());
+
+        Deque<Integer> gaps = new ArrayDeque<>();
+        for (int n = lastKnown + 1; n <= frontier; n++)
         {
-            try {
-                GameVersion version = future.get();
-                if (version != null) {
-                    versions.add(version);
-                }
-            } catch (Exception e) {
-                // ...
+            if (!versions.containsKey(n)) {
+                gaps.add(n);
             }
-
-            completed++;
-            int progress = (completed * 100) / futures.size();
-            listener.onProgress(progress, "count: " + versions.size());
         }
 
-        executor.shutdown();
+        int gapCount = gaps.size();
+        int[] resolved = {0};
 
-        versions.sort(Comparator.comparingInt(GameVersion::getPatchNumber).reversed());
+        while (!gaps.isEmpty() || results.outstanding() > 0)
+        {
+            while (!gaps.isEmpty() && results.outstanding() < SCAN_CONCURRENCY)
+            {
+                results.track(checkPatchExists(os, arch, gaps.poll(), branch), version ->
+                {
+                    resolved[0]++;
+                    if (version != null)
+                    {
+                        versions.put(version.getPatchNumber(), version);
+                        listener.onVersion(version);
+                    }
+                    listener.onProgress(60 + 40 * resolved[0] / Math.max(1, gapCount), "count: " + versions.size());
+                });
+            }
+
+            results.takeOne();
+        }
 
-        saveAvailableVersions(versions, branch);
+        // A patch whose existence is unknown would be dropped from the list for good, since the next scan
+        // starts past it, so the cached list is kept instead.
+        results.throwIfFailed();
 
-        listener.onProgress(100, "count: " + versions.size());
-        return versions;
+        List<GameVersion> result = new ArrayList<>(versions.descendingMap().values());
+        saveAvailableVersions(result, branch);
+
+        listener.onProgress(100, "count: " + result.size());
+        return result;
     }
 
-    private GameVersion checkPatchExists(String os, String arch, int patchNumber, String branch)
+    // Patch numbers are dense, so the newest one is found by galloping forward from the last known
+    // patch and binary-searching the first miss. A few patches past it are probed before stopping,
+    // so a single missing number does not hide the ones after it.
+    private int findFrontier(String os, String arch, String branch, int lastKnown,
+                             Map<Integer, GameVersion> found, CompletionQueue results,
+                             ProgressListener listener) throws IOException
     {
-        String fileName = patchNumber + ".pwr";
-        String url = String.format("%s/%s/%s/%s/0/%s",
-                PATCHES_BASE_URL, os, arch, branch, fileName);
+        int low = lastKnown;
 
-        try {
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .method("HEAD", HttpRequest.BodyPublishers.noBody())
-                    .timeout(Duration.ofSeconds(5))
-                    .build();
+        while (true)
+        {
+            int high;
+            int step = 1;
+
+            while (true)
+            {
+                int candidate = low + step;
+                GameVersion version = probe(os, arch, candidate, branch, found, results, listener);
+
+                if (version == null)
+                {
+                    high = candidate;
+                    break;
+                }
 
-            HttpResponse<Void> response = httpClient.send(request,
-                    HttpResponse.BodyHandlers.discarding());
+                low = candidate;
+                step *= 2;
+            }
 
-            if (response.statusCode() == 200)
+            while (high - low > 1)
             {
-                long size = response.headers()
-                        .firstValueAsLong("Content-Length")
-                        .orElse(-1);
-
-                String versionName = branch.equals("pre-release")
-                        ? "Pre-Release " + patchNumber
-                        : "Release " + patchNumber;
-
-                return new GameVersion(
-                        versionName,
-                        fileName,
-                        url,
-                        patchNumber,
-                        size,
-                        false,
-                        branch
-                );
+                int mid = (low + high) >>> 1;
+
+                if (probe(os, arch, mid, branch, found, results, listener) != null) {
+                    low = mid;
+                } else {
+                    high = mid;
+                }
             }
-        } catch (Exception e) {
-            // ...
+
+            List<CompletableFuture<GameVersion>> beyond = new ArrayList<>();
+            for (int n = low + 2; n <= low + 1 + GAP_TOLERANCE; n++) {
+                beyond.add(checkPatchExists(os, arch, n, branch));
+            }
+
+            int next = low;
+            for (CompletableFuture<GameVersion> probe : beyond)
+            {
+                GameVersion version = await(probe);
+                if (version != null)
+                {
+                    found.put(version.getPatchNumber(), version);
+                    listener.onVersion(version);
+                    next = Math.max(next, version.getPatchNumber());
+                }
+            }
+
+            if (next == low) return low;
+            low = next;
         }
+    }
 
-        return null;
+    private GameVersion probe(String os, String arch, int patchNumber, String branch,
+                              Map<Integer, GameVersion> found, CompletionQueue results,
+                              ProgressListener listener) throws IOException
+    {
+        GameVersion version = await(checkPatchExists(os, arch, patchNumber, branch));
+        results.drainReady();
+
+        if (version != null)
+        {
+            found.put(patchNumber, version);
+            listener.onVersion(version);
+        }
+
+        return version;
+    }
+
+    // Null only when the server says the patch is not there (404/410). A network failure or any other status
+    // completes exceptionally, so an unreachable mirror is never mistaken for the end of the patch list.
+    private CompletableFuture<GameVersion> checkPatchExists(String os, String arch, int patchNumber, String branch)
+    {
+        if (patchNumber < 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        String url = patchUrl(os, arch, branch, 0, patchNumber);
+
+        HttpRequest request = Http.request(url)
+                .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                .timeout(Duration.ofSeconds(5))
+                .build();
+
+        return Http.sendAsync(request, HttpResponse.BodyHandlers.discarding()).handle((response, error) ->
+        {
+            if (error != null) {
+                throw new CompletionException(new IOException("Could not check patch " + patchNumber
+                        + ": " + (error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName()), error));
+            }
+
+            return switch (response.statusCode())
+            {
+                case 200 -> toVersion(response, url, patchNumber, branch);
+                case 404, 410 -> null;
+                default -> throw new CompletionException(new IOException("Could not check patch " + patchNumber
+                        + ": HTTP " + response.statusCode()));
+            };
+        });
+    }
+
+    private static GameVersion await(CompletableFuture<GameVersion> check) throws IOException
+    {
+        try {
+            return check.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            throw new IOException("Patch check failed", e.getCause());
+        }
+    }
+
+    // Conditional HEAD: 304 keeps the cached entry, 404 means the patch was pulled,
+    // and a network failure keeps what we had rather than dropping it.
+    private CompletableFuture<GameVersion> revalidate(String os, String arch, GameVersion known)
+    {
+        String url = patchUrl(os, arch, known.getBranch(), 0, known.getPatchNumber());
+        HttpRequest.Builder builder = Http.request(url)
+                .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                .timeout(Duration.ofSeconds(5));
+
+        if (known.getEtag() != null) {
+            builder.header("If-None-Match", known.getEtag());
+        }
+        if (known.getLastModified() != null) {
+            builder.header("If-Modified-Since", known.getLastModified());
+        }
+
+        return Http.sendAsync(builder.build(), HttpResponse.BodyHandlers.discarding()).handle((response, error) ->
+        {
+            if (error != null) return known;
+
+            return switch (response.statusCode())
+            {
+                case 200 -> toVersion(response, url, known.getPatchNumber(), known.getBranch());
+                case 404, 410 -> null;
+                default -> known;
+            };
+        });
+    }
+
+    private GameVersion toVersion(HttpResponse<?> response, String url, int patchNumber, String branch)
+    {
+        var headers = response.headers();
+        long size = headers.firstValueAsLong("Content-Length").orElse(-1);
+
+        String versionName = branch.equals("pre-release")
+                ? "Pre-Release " + patchNumber
+                : "Release " + patchNumber;
+
+        GameVersion version = new GameVersion(
+                versionName,
+                patchNumber + ".pwr",
+                url,
+                patchNumber,
+                size,
+                false,
+                branch
+        );
+
+        version.setValidators(headers.firstValue("ETag").orElse(null),
+                headers.firstValue("Last-Modified").orElse(null));
+        return version;
+    }
+
+    // Base 0 is the full patch; any other base is a delta from that installed version.
+    public static String patchUrl(String os, String arch, String branch, int fromPatch, int toPatch)
+    {
+        return String.format("%s/%s/%s/%s/%d/%d.pwr",
+                Endpoints.PATCHES, os, arch, branch, fromPatch, toPatch);
     }
 
     public List<GameVersion> loadCachedVersions(String branch)
@@ -131,7 +304,8 @@ public class VersionManager
             if (Files.exists(cacheFile))
             {
                 String json = Files.readString(cacheFile);
-                return gson.fromJson(json, new TypeToken<List<GameVersion>>(){}.getType());
+                List<GameVersion> cached = gson.fromJson(json, new TypeToken<List<GameVersion>>(){}.getType());
+                if (cached != null) return cached;
             }
         } catch (IOException e) {
             System.err.println("Failed to load cached versions for " + branch + ": " + e.getMessage());
@@ -280,7 +454,61 @@ public class VersionManager
                 });
     }
 
-    public interface ProgressListener {
+    public interface ProgressListener
+    {
         void onProgress(int percent, String message);
+
+        default void onVersion(GameVersion version) {}
+    }
+
+    // Runs async results on the scanning thread in the order they complete, so one slow probe
+    // never holds back the ones behind it and listeners are never called concurrently.
+    private static class CompletionQueue
+    {
+        private final BlockingQueue<Runnable> ready = new LinkedBlockingQueue<>();
+        private int outstanding;
+        private Throwable failure;
+
+        <T> void track(CompletableFuture<T> future, Consumer<T> onResult)
+        {
+            outstanding++;
+            future.whenComplete((value, error) -> ready.add(() ->
+            {
+                if (error == null) {
+                    onResult.accept(value);
+                } else if (failure == null) {
+                    failure = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                }
+            }));
+        }
+
+        void throwIfFailed() throws IOException
+        {
+            if (failure instanceof IOException io) throw io;
+            if (failure != null) throw new IOException("Version scan failed", failure);
+        }
+
+        int outstanding() {
+            return outstanding;
+        }
+
+        void takeOne() throws InterruptedException
+        {
+            if (outstanding == 0) return;
+
+            Runnable next = ready.take();
+            outstanding--;
+            next.run();
+        }
+
+        void drainReady()
+        {
+            Runnable next;
+            while ((next = ready.poll()) != null)
+            {
+                outstanding--;
+                next.run();
+            }
+        }
     }
 }
\ No newline at end of file